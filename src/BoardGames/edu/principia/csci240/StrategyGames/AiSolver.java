@@ -1,14 +1,556 @@
 package boardgames.edu.principia.csci240.strategygames;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-
-import javax.swing.border.Border;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class AiSolver {
+    private static final int INFINITY = Integer.MAX_VALUE - 1;
+    public static final int MAX_DEPTH = 64;
+    private static final int NODES_PER_CLOCK_CHECK = 1024;
+    private static final int DEFAULT_TABLE_BITS = 20;
+    private static final int ASPIRATION_WINDOW = 4;
+
+    public enum SearchMode {
+        ALPHA_BETA, // Full-window alpha-beta, kept as the reference search
+        PVS // Principal variation search with aspiration windows
+    }
 
     public static class mmResult {
         public int Values; // The value of the move
         public Board.Move currentMove; // The move itself
+        public int depth; // Depth of the deepest completed iteration
+    }
+
+    private long deadline; // System.nanoTime() at which the search must stop
+    private boolean timedOut;
+    private boolean depthLimited; // Some line was cut off by the depth limit
+    private SearchStats stats = new SearchStats();
+    private TranspositionTable table;
+    private MoveOrdering ordering = new HeuristicOrdering();
+    private Tablebase tablebase;
+    private SearchMode mode = SearchMode.PVS;
+    private AtomicBoolean stopSignal; // Set to stop the search, as if out of time
+    private int rootRotation; // Helpers start at different root moves
+
+    // Per-ply buffers, grown on demand and reused so the search allocates
+    // nothing per node. Below the root, moves are handled in their int
+    // encoding.
+    private final int[][] moveBuffers = new int[MAX_DEPTH + 1][0];
+    private final int[][] orderBuffers = new int[MAX_DEPTH + 1][0];
+    private final int[][] scoreBuffers = new int[MAX_DEPTH + 1][0];
+    private final int[][] hashMoveBuffers = new int[MAX_DEPTH + 1][1];
+    private static final int[] FIRST_ONLY = { 0 };
+
+    public AiSolver() {
+        this(new TranspositionTable(DEFAULT_TABLE_BITS));
+    }
+
+    private AiSolver(TranspositionTable table) {
+        this.table = table;
+    }
+
+    // Use the given transposition table for later searches, or none if null.
+    // A table may be kept across searches of the same game.
+    public void setTranspositionTable(TranspositionTable table) {
+        this.table = table;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    // Use the given move ordering for later searches. With null, moves are
+    // tried in generated order after the transposition table's move.
+    public void setMoveOrdering(MoveOrdering ordering) {
+        this.ordering = ordering;
+    }
+
+    public MoveOrdering getMoveOrdering() {
+        return ordering;
+    }
+
+    // Answer positions the given tablebase covers by looking them up instead of
+    // searching, or always search if null. Only the root is looked up, so the
+    // search itself stays allocation-free.
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    public Tablebase getTablebase() {
+        return tablebase;
+    }
+
+    // Stop later searches early, as if their deadline had passed, once signal
+    // is set, or never if null. The search checks it along with the clock, so
+    // another thread can cancel it.
+    void setStopSignal(AtomicBoolean signal) {
+        stopSignal = signal;
+    }
+
+    public void setSearchMode(SearchMode mode) {
+        this.mode = mode;
+    }
+
+    public SearchMode getSearchMode() {
+        return mode;
+    }
+
+    // Search by iterative deepening until timeBudgetMillis has elapsed, returning
+    // the best move of the deepest iteration that finished in time. The first
+    // iteration always completes, so a move is returned whenever one exists.
+    public mmResult searchForTime(Board brd, long timeBudgetMillis) {
+        return iterate(brd, MAX_DEPTH, System.nanoTime() + timeBudgetMillis * 1_000_000L);
+    }
+
+    // Search by iterative deepening to exactly maxDepth plies, with no deadline.
+    // A maxDepth beyond MAX_DEPTH, which the per-ply buffers are sized for, is
+    // searched to MAX_DEPTH.
+    public mmResult searchToDepth(Board brd, int maxDepth) {
+        return iterate(brd, Math.min(maxDepth, MAX_DEPTH), Long.MAX_VALUE);
+    }
+
+    // Search with Lazy SMP: the calling thread and threads - 1 helpers each
+    // run the iterative-deepening search on their own copy of brd, sharing
+    // this solver's transposition table. Helpers begin at different root
+    // moves and fill the table with results the main search then reuses. The
+    // main search alone decides the move, so it is the same quality as a
+    // serial search to the same depth. A timeBudgetMillis of 0 means no
+    // deadline; getNodes() afterwards counts the nodes of all threads. As in
+    // searchToDepth, maxDepth is limited to MAX_DEPTH.
+    public mmResult searchParallel(Board brd, int threads, int maxDepth, long timeBudgetMillis) {
+        maxDepth = Math.min(maxDepth, MAX_DEPTH);
+        long deadline = timeBudgetMillis > 0 ? System.nanoTime() + timeBudgetMillis * 1_000_000L
+                : Long.MAX_VALUE;
+        if (table != null) {
+            table.newSearch();
+        }
+
+        mmResult known = probeTablebase(brd);
+        if (known != null) {
+            return known;
+        }
+        SearchEvents.Search event = new SearchEvents.Search();
+        event.begin();
+        AtomicBoolean stop = new AtomicBoolean();
+        List<AiSolver> helpers = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads - 1));
+        try {
+            for (int id = 1; id < threads; id++) {
+                AiSolver helper = new AiSolver(table);
+                helper.ordering = ordering == null ? null : ordering.copy();
+                helper.mode = mode;
+                helper.stopSignal = stop;
+                helper.rootRotation = id;
+                Board copy = brd.copy();
+                helpers.add(helper);
+                futures.add(pool.submit(() -> helper.deepen(copy, MAX_DEPTH, deadline)));
+            }
+
+            mmResult best = deepen(brd, maxDepth, deadline);
+
+            stop.set(true);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            for (AiSolver helper : helpers) {
+                stats.add(helper.stats);
+            }
+            commitSearchEvent(event, brd, best, threads);
+            return best;
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("Parallel search failed", e);
+        } finally {
+            stop.set(true);
+            pool.shutdown();
+        }
+    }
+
+    private mmResult iterate(Board brd, int maxDepth, long deadline) {
+        mmResult known = probeTablebase(brd);
+        if (known != null) {
+            return known;
+        }
+        if (table != null) {
+            table.newSearch();
+        }
+        SearchEvents.Search event = new SearchEvents.Search();
+        event.begin();
+        mmResult best = deepen(brd, maxDepth, deadline);
+        commitSearchEvent(event, brd, best, 1);
+        return best;
+    }
+
+    // Look brd up in the tablebase, returning null if there is none or it does
+    // not cover brd. A lookup counts as a search of no nodes.
+    private mmResult probeTablebase(Board brd) {
+        if (tablebase == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        mmResult known = tablebase.probe(brd);
+        if (known != null) {
+            stats.reset();
+            stats.elapsedNanos = System.nanoTime() - start;
+        }
+        return known;
+    }
+
+    private void commitSearchEvent(SearchEvents.Search event, Board brd, mmResult best, int threads) {
+        if (event.shouldCommit()) {
+            event.board = brd.getClass().getSimpleName();
+            event.depth = best.depth;
+            event.nodes = stats.nodes;
+            event.leafEvaluations = stats.leafEvaluations;
+            event.cutoffs = stats.cutoffs;
+            event.firstMoveCutoffRate = stats.getFirstMoveCutoffRate();
+            event.tableHitRate = stats.getTableHitRate();
+            event.maxPly = stats.maxPly;
+            event.threads = threads;
+            event.commit();
+        }
+    }
+
+    private mmResult deepen(Board brd, int maxDepth, long deadline) {
+        this.deadline = deadline;
+        timedOut = false;
+        stats.reset();
+        if (ordering != null) {
+            ordering.newSearch();
+        }
+
+        mmResult best = new mmResult();
+        List<Board.Move> rootMoves = new ArrayList<>(brd.getValidMoves());
+        best.Values = brd.getValue();
+        if (rootMoves.isEmpty() || Math.abs(best.Values) >= Board.WIN) {
+            stats.elapsedNanos = System.nanoTime() - stats.startNanos;
+            return best;
+        }
+        Collections.rotate(rootMoves, -rootRotation);
+        best.currentMove = rootMoves.get(0);
+
+        int player = brd.getCurrentPlayer();
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            depthLimited = false;
+            mmResult iteration = new mmResult();
+            SearchEvents.Iteration event = new SearchEvents.Iteration();
+            event.begin();
+            long iterationStart = System.nanoTime();
+            long nodesBefore = stats.nodes;
+
+            // Under PVS, search a narrow window around the previous score and
+            // widen it only on the side that fails
+            int previous = player * best.Values;
+            boolean aspirate = mode == SearchMode.PVS && depth > 1 && Math.abs(previous) < Board.WIN;
+            int delta = ASPIRATION_WINDOW;
+            int alpha = aspirate ? previous - delta : -INFINITY;
+            int beta = aspirate ? previous + delta : INFINITY;
+            while (true) {
+                int score = searchRoot(brd, rootMoves, depth, alpha, beta, iteration);
+                if (timedOut) {
+                    break;
+                }
+                if (score <= alpha && alpha > -INFINITY) {
+                    delta *= 4;
+                    alpha = delta >= Board.WIN ? -INFINITY : previous - delta;
+                } else if (score >= beta && beta < INFINITY) {
+                    delta *= 4;
+                    beta = delta >= Board.WIN ? INFINITY : previous + delta;
+                } else {
+                    break;
+                }
+            }
+            if (timedOut) {
+                break;
+            }
+            iteration.depth = depth;
+            best = iteration;
+            stats.iterations = depth;
+            stats.iterationNodes[depth] = stats.nodes - nodesBefore;
+            stats.iterationNanos[depth] = System.nanoTime() - iterationStart;
+            if (event.shouldCommit()) {
+                event.depth = depth;
+                event.nodes = stats.iterationNodes[depth];
+                event.value = best.Values;
+                event.bestMove = best.currentMove.toString();
+                event.commit();
+            }
+
+            // Search the previous best move first on the next, deeper pass
+            rootMoves.remove(best.currentMove);
+            rootMoves.add(0, best.currentMove);
+
+            // Stop once the result is decided or the whole tree fit in the depth
+            if (Math.abs(best.Values) >= Board.WIN || !depthLimited) {
+                break;
+            }
+        }
+        stats.elapsedNanos = System.nanoTime() - stats.startNanos;
+        return best;
+    }
+
+    // Search the root moves within (alpha, beta), returning the best score for
+    // the player to move and filling in best. A score outside the window is
+    // only a bound, and the caller must search again with a wider window.
+    private int searchRoot(Board brd, List<Board.Move> rootMoves, int depth, int alpha, int beta,
+            mmResult best) {
+        int player = brd.getCurrentPlayer();
+        int bestScore = -INFINITY;
+        boolean first = true;
+        for (Board.Move move : rootMoves) {
+            try {
+                brd.applyMove(move);
+            } catch (Board.InvalidMoveException e) {
+                assert false;
+            }
+            int score = searchMove(brd, depth - 1, 1, alpha, beta, first, depth > 1);
+            brd.undoMove();
+            if (timedOut) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best.currentMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+            first = false;
+        }
+        best.Values = player * bestScore; // Report from player 1's point of view
+        return bestScore;
+    }
+
+    // Search the position just reached by a move, returning its score for the
+    // player who made the move. Under PVS every move but the first is searched
+    // with a zero window, and searched again with the full window only if it
+    // scores inside (alpha, beta).
+    private int searchMove(Board brd, int depth, int ply, int alpha, int beta, boolean first,
+            boolean canTimeOut) {
+        if (mode == SearchMode.PVS && !first && beta - alpha > 1) {
+            int score = -alphaBeta(brd, depth, ply, -alpha - 1, -alpha, canTimeOut);
+            if (score <= alpha || score >= beta || timedOut) {
+                return score;
+            }
+        }
+        return -alphaBeta(brd, depth, ply, -beta, -alpha, canTimeOut);
+    }
+
+    // Negamax alpha-beta returning the value from the point of view of the
+    // player to move, ply plies below the root. Returns 0 and sets timedOut if
+    // the deadline passes.
+    private int alphaBeta(Board brd, int depth, int ply, int alpha, int beta, boolean canTimeOut) {
+        long nodes = ++stats.nodes;
+        if (ply > stats.maxPly) {
+            stats.maxPly = ply;
+        }
+        if (canTimeOut && nodes % NODES_PER_CLOCK_CHECK == 0
+                && (System.nanoTime() > deadline || (stopSignal != null && stopSignal.get()))) {
+            timedOut = true;
+        }
+        if (timedOut) {
+            return 0;
+        }
+
+        long hash = brd.getHash();
+        int hashMove = TranspositionTable.NO_MOVE;
+        if (table != null && depth > 0) {
+            long entry = table.probe(hash);
+            stats.tableProbes++;
+            if (entry != TranspositionTable.MISS) {
+                stats.tableHits++;
+                hashMove = TranspositionTable.moveOf(entry);
+                int entryDepth = TranspositionTable.depthOf(entry);
+                int entryValue = TranspositionTable.valueOf(entry);
+                int bound = TranspositionTable.boundOf(entry);
+                if (entryDepth >= depth && (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && entryValue >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && entryValue <= alpha))) {
+                    if (entryDepth != TranspositionTable.FULL_DEPTH) {
+                        depthLimited = true;
+                    }
+                    return entryValue;
+                }
+            }
+        }
+
+        int player = brd.getCurrentPlayer();
+        int value = brd.getValue();
+        if (Math.abs(value) >= Board.WIN) {
+            stats.leafEvaluations++;
+            return player * value;
+        }
+        if (depth == 0) {
+            stats.leafEvaluations++;
+            if (hasMoves(brd, ply)) {
+                depthLimited = true;
+            }
+            return player * value;
+        }
+
+        // Track whether this subtree alone hit the depth limit, so that a
+        // complete subtree can be stored as valid at any depth.
+        boolean outerDepthLimited = depthLimited;
+        depthLimited = false;
+        int alphaOriginal = alpha;
+        int best = -INFINITY;
+        int bestMove = TranspositionTable.NO_MOVE;
+        int searched = 0;
+
+        // Try the hash move before generating anything, then generate and
+        // search the board's move stages one at a time, so a cutoff leaves the
+        // later stages ungenerated. Stage -1 stands for the hash move.
+        int stages = brd.getMoveStages();
+        search:
+        for (int stage = -1; stage < stages; stage++) {
+            int[] moves;
+            int[] order;
+            int count;
+            if (stage < 0) {
+                if (hashMove == TranspositionTable.NO_MOVE) {
+                    continue;
+                }
+                moves = hashMoveBuffers[ply];
+                moves[0] = hashMove;
+                order = FIRST_ONLY;
+                count = 1;
+            } else {
+                count = generateStage(brd, stage, ply);
+                stats.stageGenerations[Math.min(stage, SearchStats.MAX_STAGES - 1)]++;
+                moves = moveBuffers[ply];
+                order = orderMoves(moves, count, ply);
+            }
+
+            for (int n = 0; n < count; n++) {
+                int move = moves[order[n]];
+                if (stage >= 0 && move == hashMove) {
+                    continue;
+                }
+                if (stage >= 0) {
+                    brd.applyTrustedMove(move);
+                } else {
+                    try {
+                        brd.applyMove(move);
+                    } catch (Board.InvalidMoveException e) {
+                        continue; // Stored for another position with the same hash
+                    }
+                }
+                int score = searchMove(brd, depth - 1, ply + 1, alpha, beta, searched == 0, canTimeOut);
+                brd.undoMove();
+                if (timedOut) {
+                    return 0;
+                }
+                searched++;
+                if (score > best) {
+                    best = score;
+                    bestMove = move;
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            stats.cutoffs++;
+                            if (searched == 1) {
+                                stats.firstMoveCutoffs++;
+                            }
+                            if (ordering != null) {
+                                ordering.cutoff(move, ply, depth);
+                            }
+                            break search;
+                        }
+                    }
+                }
+            }
+        }
+        if (searched == 0) {
+            // No moves, so the game is over
+            stats.leafEvaluations++;
+            depthLimited = outerDepthLimited;
+            return player * value;
+        }
+        stats.expandedNodes++;
+
+        if (table != null) {
+            int bound = best <= alphaOriginal ? TranspositionTable.UPPER_BOUND
+                    : best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+            table.store(hash, depthLimited ? depth : TranspositionTable.FULL_DEPTH, bound, best, bestMove);
+        }
+        depthLimited |= outerDepthLimited;
+        return best;
+    }
+
+    // Fill this ply's move buffer with the given stage of brd's moves, growing
+    // the ply's buffers if needed, and return the move count
+    private int generateStage(Board brd, int stage, int ply) {
+        int count = brd.getValidMoves(stage, moveBuffers[ply]);
+        if (count > moveBuffers[ply].length) {
+            moveBuffers[ply] = new int[count];
+            orderBuffers[ply] = new int[count];
+            scoreBuffers[ply] = new int[count];
+            brd.getValidMoves(stage, moveBuffers[ply]);
+        }
+        return count;
+    }
+
+    // Whether brd has any valid move, generating no more stages than needed
+    private boolean hasMoves(Board brd, int ply) {
+        for (int stage = 0; stage < brd.getMoveStages(); stage++) {
+            if (generateStage(brd, stage, ply) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Return the indices of the first count moves in the order to search them:
+    // by decreasing MoveOrdering score, ties in generated order. The result is
+    // this ply's reusable order buffer.
+    private int[] orderMoves(int[] moves, int count, int ply) {
+        int[] order = orderBuffers[ply];
+        int[] scores = scoreBuffers[ply];
+        for (int i = 0; i < count; i++) {
+            int score = ordering != null ? ordering.score(moves[i], ply) : 0;
+
+            // Insertion sort; stable, and move lists are short
+            int n = i;
+            while (n > 0 && scores[n - 1] < score) {
+                order[n] = order[n - 1];
+                scores[n] = scores[n - 1];
+                n--;
+            }
+            order[n] = i;
+            scores[n] = score;
+        }
+        return order;
+    }
+
+    // Statistics of the last search. The object is reused, and reset by the
+    // next search.
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    public long getNodes() {
+        return stats.getNodes();
+    }
+
+    public long getCutoffs() {
+        return stats.getCutoffs();
+    }
+
+    public long getFirstMoveCutoffs() {
+        return stats.getFirstMoveCutoffs();
+    }
+
+    public double getFirstMoveCutoffRate() {
+        return stats.getFirstMoveCutoffRate();
     }
 
     static void minimax(Board brd, int min, int max, int level, mmResult best) {
@@ -0,0 +1,235 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import org.junit.jupiter.api.Test;
+
+import boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard.BeehiveBoard;
+import boardgames.edu.principia.csci240.strategygames.cluhanga.tictactoe.TTTBoard;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiSolverTest {
+    private static void play(Board board, String... moves) throws Exception {
+        for (String text : moves) {
+            Board.Move move = board.createMove();
+            move.fromString(text);
+            board.applyMove(move);
+        }
+    }
+
+    @Test
+    void testFindsImmediateWin() throws Exception {
+        TTTBoard board = new TTTBoard();
+        // X: 1,1 1,2   O: 2,1 2,2   X to move and win at 1,3
+        play(board, "1,1", "2,1", "1,2", "2,2");
+
+        AiSolver.mmResult result = new AiSolver().searchToDepth(board, 9);
+        assertEquals("1,3", result.currentMove.toString());
+        assertEquals(Board.WIN, result.Values);
+        assertEquals(4, board.getMoveHistory().size(), "Search should leave the board unchanged");
+    }
+
+    @Test
+    void testEmptyTicTacToeIsADraw() {
+        AiSolver.mmResult result = new AiSolver().searchToDepth(new TTTBoard(), 9);
+        assertNotNull(result.currentMove);
+        assertEquals(0, result.Values);
+    }
+
+    @Test
+    void testTimeBudgetReturnsAMove() {
+        BeehiveBoard board = new BeehiveBoard();
+        long start = System.currentTimeMillis();
+        AiSolver.mmResult result = new AiSolver().searchForTime(board, 200);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertNotNull(result.currentMove, "A move should be returned even when time runs out");
+        assertTrue(result.depth >= 1);
+        assertTrue(elapsed < 2000, "Search should stop close to its deadline");
+        assertTrue(board.getMoveHistory().isEmpty(), "Search should leave the board unchanged");
+    }
+
+    // A game that never ends, with one move always available, so a search
+    // reaches every depth it is given
+    static class EndlessBoard implements Board {
+        static class Pass implements Board.Move {
+            @Override
+            public void write(java.io.OutputStream os) {
+            }
+
+            @Override
+            public void read(java.io.InputStream is) {
+            }
+
+            @Override
+            public void fromString(String s) {
+            }
+
+            @Override
+            public int compareTo(Board.Move other) {
+                return 0;
+            }
+
+            @Override
+            public String toString() {
+                return "pass";
+            }
+        }
+
+        private static final Pass PASS = new Pass();
+        private final java.util.List<Pass> history = new java.util.ArrayList<>();
+
+        @Override
+        public Board.Move createMove() {
+            return new Pass();
+        }
+
+        @Override
+        public void applyMove(Board.Move m) {
+            history.add(PASS);
+        }
+
+        @Override
+        public int getValue() {
+            return 0;
+        }
+
+        @Override
+        public java.util.List<Pass> getValidMoves() {
+            return java.util.List.of(PASS);
+        }
+
+        @Override
+        public int getCurrentPlayer() {
+            return history.size() % 2 == 0 ? PLAYER_1 : PLAYER_2;
+        }
+
+        @Override
+        public java.util.List<Pass> getMoveHistory() {
+            return new java.util.ArrayList<>(history);
+        }
+
+        @Override
+        public void undoMove() {
+            if (!history.isEmpty()) {
+                history.remove(history.size() - 1);
+            }
+        }
+    }
+
+    @Test
+    void testDepthBeyondMaxDepthIsClamped() {
+        AiSolver solver = new AiSolver();
+        assertEquals(AiSolver.MAX_DEPTH, solver.searchToDepth(new EndlessBoard(), AiSolver.MAX_DEPTH + 1).depth);
+        assertEquals(AiSolver.MAX_DEPTH, solver.getStats().getMaxPly());
+        assertEquals(AiSolver.MAX_DEPTH,
+                new AiSolver().searchParallel(new EndlessBoard(), 2, Integer.MAX_VALUE, 0).depth);
+    }
+
+    @Test
+    void testParallelSearchMatchesSerialValue() throws Exception {
+        TTTBoard board = new TTTBoard();
+        play(board, "2,2", "1,1");
+
+        AiSolver.mmResult serial = new AiSolver().searchToDepth(board, 7);
+        AiSolver.mmResult parallel = new AiSolver().searchParallel(board, 4, 7, 0);
+        assertEquals(serial.Values, parallel.Values);
+        assertNotNull(parallel.currentMove);
+        assertEquals(2, board.getMoveHistory().size(), "Search should leave the board unchanged");
+    }
+
+    @Test
+    void testSearchModesAgree() throws Exception {
+        TTTBoard board = new TTTBoard();
+        play(board, "1,1");
+
+        AiSolver reference = new AiSolver();
+        reference.setSearchMode(AiSolver.SearchMode.ALPHA_BETA);
+        AiSolver pvs = new AiSolver();
+        pvs.setSearchMode(AiSolver.SearchMode.PVS);
+        for (int depth = 1; depth <= 8; depth++) {
+            assertEquals(reference.searchToDepth(board, depth).Values, pvs.searchToDepth(board, depth).Values,
+                    "Depth " + depth);
+        }
+    }
+
+    @Test
+    void testStatsDescribeTheSearch() {
+        AiSolver solver = new AiSolver();
+        AiSolver.mmResult result = solver.searchToDepth(new TTTBoard(), 9);
+        SearchStats stats = solver.getStats();
+
+        assertEquals(result.depth, stats.getIterations());
+        long iterationNodes = 0;
+        for (int depth = 1; depth <= stats.getIterations(); depth++) {
+            iterationNodes += stats.getIterationNodes(depth);
+        }
+        assertEquals(stats.getNodes(), iterationNodes);
+        assertTrue(stats.getLeafEvaluations() > 0 && stats.getLeafEvaluations() < stats.getNodes());
+        assertTrue(stats.getFirstMoveCutoffs() <= stats.getCutoffs());
+        assertTrue(stats.getTableHitRate() > 0 && stats.getTableHitRate() <= 1);
+        assertEquals(result.depth, stats.getMaxPly());
+    }
+
+    @Test
+    void testTableCutsBeehiveNodes() throws Exception {
+        // The position after testPlay 1 20
+        BeehiveBoard board = new BeehiveBoard();
+        play(board, "3,5", "3,8", "8,4", "8,3", "11,11", "2,6", "1,5", "6,2", "3,9", "3,1",
+                "6,5", "4,7", "5,9", "4,1", "8,5", "11,9", "9,4", "4,5", "2,11", "6,6");
+
+        AiSolver plain = new AiSolver();
+        plain.setTranspositionTable(null);
+        AiSolver.mmResult without = plain.searchToDepth(board, 4);
+        AiSolver tabled = new AiSolver();
+        AiSolver.mmResult with = tabled.searchToDepth(board, 4);
+        assertEquals(without.Values, with.Values);
+        assertTrue(tabled.getNodes() < plain.getNodes() * 3 / 4,
+                tabled.getNodes() + " nodes with the table, " + plain.getNodes() + " without");
+    }
+
+    @Test
+    void testStagesPartitionTheMoves() throws Exception {
+        Board[] boards = { new TTTBoard(), new BeehiveBoard() };
+        play(boards[0], "1,1", "2,2", "1,2");
+        play(boards[1], "3,3", "6,6", "4,5");
+        for (Board board : boards) {
+            int[] all = new int[200];
+            int count = board.getValidMoves(all);
+            java.util.Set<Integer> expected = new java.util.HashSet<>();
+            for (int i = 0; i < count; i++) {
+                expected.add(all[i]);
+            }
+
+            java.util.Set<Integer> staged = new java.util.HashSet<>();
+            int[] moves = new int[200];
+            for (int stage = 0; stage < board.getMoveStages(); stage++) {
+                int stageCount = board.getValidMoves(stage, moves);
+                assertTrue(stageCount > 0, "Stage " + stage + " of " + board.getClass().getSimpleName());
+                for (int i = 0; i < stageCount; i++) {
+                    assertTrue(staged.add(moves[i]), "Move in two stages");
+                }
+            }
+            assertEquals(expected, staged);
+        }
+
+        AiSolver solver = new AiSolver();
+        solver.searchToDepth(boards[1], 3);
+        SearchStats stats = solver.getStats();
+        assertTrue(stats.getStageGenerationRate(0) <= 1);
+        assertTrue(stats.getStageGenerationRate(1) < stats.getStageGenerationRate(0),
+                "Cutoffs should leave later stages ungenerated");
+    }
+
+    @Test
+    void testTablebaseReplacesSearch() throws Exception {
+        TTTBoard board = new TTTBoard();
+        play(board, "1,1", "2,2", "1,2");
+
+        AiSolver solver = new AiSolver();
+        solver.setTablebase(board.getTablebase());
+        AiSolver.mmResult known = solver.searchForTime(board, 1000);
+        assertEquals(0, solver.getNodes());
+        assertEquals("1,3", known.currentMove.toString());
+        assertEquals(new AiSolver().searchToDepth(board, AiSolver.MAX_DEPTH).Values, known.Values);
+    }
+}
@@ -43,9 +43,76 @@ public interface Board {
    public int getValue();
 
    // Return a list of all valid moves for the current player. An empty list
-   // indicates that the game is over.
+   // indicates that the game is over. The list belongs to the caller. Boards
+   // may put moves shared with other boards in it, but only ones that cannot
+   // be changed, so that no caller can alter another board's moves.
    public List<? extends Move> getValidMoves();
 
+   // Moves may also be handled as ints, so that a search can generate, apply
+   // and compare them with no Move objects at all. A board that overrides the
+   // methods below gives each move the same number in every position. The
+   // defaults number each move by its index in getValidMoves(), which only
+   // identifies it in the position it was generated in.
+
+   // Fill moves with the encoded valid moves for the current player, in the
+   // same order as getValidMoves(), and return how many there are. If moves is
+   // too small the needed size is returned and the contents of moves are
+   // unspecified, so the caller can grow its buffer and try again.
+   public default int getValidMoves(int[] moves) {
+      int count = getValidMoves().size();
+      for (int i = 0; i < count && i < moves.length; i++) {
+         moves[i] = i;
+      }
+      return count;
+   }
+
+   // Apply an encoded move, throwing an exception if it is invalid.
+   public default void applyMove(int move) throws InvalidMoveException {
+      Move decoded = decodeMove(move);
+      if (decoded == null) {
+         throw new InvalidMoveException("No move is encoded as " + move);
+      }
+      applyMove(decoded);
+   }
+
+   // Apply an encoded move that this board generated for the current position,
+   // skipping validation, so that a search's inner loop has no checks or
+   // exceptions to pay for. Any other move leaves the board in an undefined
+   // state; with assertions enabled, boards check the move anyway.
+   public default void applyTrustedMove(int move) {
+      try {
+         applyMove(move);
+      } catch (InvalidMoveException e) {
+         throw new IllegalArgumentException("Not a valid move: " + move, e);
+      }
+   }
+
+   // Return the int encoding of m, or -1 if m is not a move on this board.
+   public default int encodeMove(Move m) {
+      return getValidMoves().indexOf(m);
+   }
+
+   // Return the move encoded as move, or null if none is. Boards may return a
+   // shared Move instance that cannot be changed, as in getValidMoves().
+   public default Move decodeMove(int move) {
+      List<? extends Move> moves = getValidMoves();
+      return move >= 0 && move < moves.size() ? moves.get(move) : null;
+   }
+
+   // The valid moves may be generated in stages, most promising first, so that
+   // a search cutting off early never generates the later ones. Every valid
+   // move is in exactly one of the getMoveStages() stages. The default is one
+   // stage holding all the moves.
+   public default int getMoveStages() {
+      return 1;
+   }
+
+   // Fill moves with the encoded valid moves of the given stage, from 0, and
+   // return how many there are, or the needed size if moves is too small.
+   public default int getValidMoves(int stage, int[] moves) {
+      return stage == 0 ? getValidMoves(moves) : 0;
+   }
+
    // Return 1 if player 0 is to move, -1 if player 1 is to move
    public int getCurrentPlayer();
 
@@ -55,4 +122,44 @@ public interface Board {
    // Undo most recent move, or do nothing if no moves have been made
    public void undoMove();
 
+   // Return an independent copy of this board, with the same position, player
+   // to move and move history, that shares nothing either board changes when
+   // moves are applied or undone, so the two may be used by different threads.
+   // The default replays the move history onto a new instance, as
+   // BoardDriver.loadBoard does; boards override it to copy their state
+   // directly.
+   public default Board copy() {
+      try {
+         Board copy = getClass().getDeclaredConstructor().newInstance();
+         for (Move move : getMoveHistory()) {
+            copy.applyMove(move);
+         }
+         return copy;
+      } catch (ReflectiveOperationException | InvalidMoveException e) {
+         throw new IllegalStateException("Cannot copy board: " + e.getMessage(), e);
+      }
+   }
+
+   // Return a Zobrist hash of the current position, including the player to
+   // move. It is kept up to date incrementally by applyMove and undoMove, so
+   // the same position reached by different move orders has the same hash.
+   // The default instead hashes the move history, by each move's toString as
+   // BoardDriver prints it, so it is correct but costs time in proportion to
+   // the game's length, and transposed positions get different hashes; boards
+   // override it with a real Zobrist hash.
+   public default long getHash() {
+      long hash = 0;
+      for (Move move : getMoveHistory()) {
+         hash = (hash ^ move.toString().hashCode()) * Zobrist.SIDE_TO_MOVE;
+         hash ^= hash >>> 32;
+      }
+      return hash;
+   }
+
+   // Return a table of perfect-play results covering this board's positions,
+   // or null if the game has none.
+   public default Tablebase getTablebase() {
+      return null;
+   }
+
 }
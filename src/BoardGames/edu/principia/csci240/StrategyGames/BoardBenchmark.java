@@ -0,0 +1,298 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Microbenchmarks of Board implementations, run in the manner of JMH. Each
+// benchmark runs for some warmup iterations, whose results are discarded so
+// that the JIT has compiled the code under test, then for measured iterations
+// of a fixed duration. Operations are timed in batches sized so that reading
+// the clock costs little next to the batch, and every operation's result is
+// folded into a sink that is printed at the end, so the JIT cannot discard
+// the work as dead code.
+//
+// Each board is measured on a fixed position, reached by playing seeded
+// random moves from the start: a third of as many moves as the start offers.
+// The benchmarks are:
+// - applyUndo: applyMove and undoMove with Move objects, cycling through the
+//   position's valid moves
+// - applyUndoTrusted: the same through applyTrustedMove(int)
+// - validMoves: getValidMoves()
+// - validMovesInt: getValidMoves(int[]) into a reused buffer
+// - value: getValue()
+// - copy: Board.copy()
+// - copyReplay: copying by replaying the move history onto a new board, as
+//   Board.copy's default does, for comparison
+// - saveLoad: write the move history with Move.write, then replay it onto a
+//   new board with Move.read, as BoardDriver's saveBoard and loadBoard do
+// - minimaxN: AiSolver.minimax to depth N
+// Benchmarks that need a move are skipped on boards with none.
+//
+// Results are printed as a table and written as JSON, one object per
+// benchmark with JMH's field names, so that runs can be diffed across commits.
+//
+// Usage: BoardBenchmark [-o results.json] [-w warmups] [-i iterations]
+//        [-t iterationMillis] [BoardClassName...]
+public class BoardBenchmark {
+    private static final String[] DEFAULT_BOARDS = {
+            "boardgames.edu.principia.csci240.strategygames.cluhanga.tictactoe.TTTBoard",
+            "boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard.BeehiveBoard",
+            "boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard.BitBeehiveBoard",
+            "boardgames.edu.principia.csci240.strategygames.cluhanga.Peg5Board.Peg5Board" };
+    private static final long SEED = 240;
+    private static final int[] MINIMAX_DEPTHS = { 1, 2 };
+    private static final long MIN_BATCH_NANOS = 10_000;
+
+    // One benchmarked operation, returning a value for the sink
+    private interface Operation {
+        long run() throws Exception;
+    }
+
+    // The measurements of one benchmark
+    static class Result {
+        final String benchmark;
+        final String board;
+        final double[] nanosPerOp; // One per measured iteration
+
+        Result(String benchmark, String board, double[] nanosPerOp) {
+            this.benchmark = benchmark;
+            this.board = board;
+            this.nanosPerOp = nanosPerOp;
+        }
+
+        double mean() {
+            double sum = 0;
+            for (double value : nanosPerOp) {
+                sum += value;
+            }
+            return sum / nanosPerOp.length;
+        }
+
+        // Half-width of a 99.9% confidence interval for the mean, using the
+        // normal approximation, or 0 for a single iteration
+        double error() {
+            int n = nanosPerOp.length;
+            if (n < 2) {
+                return 0.0;
+            }
+            double mean = mean();
+            double squares = 0;
+            for (double value : nanosPerOp) {
+                squares += (value - mean) * (value - mean);
+            }
+            return 3.29 * Math.sqrt(squares / (n - 1) / n);
+        }
+    }
+
+    private int warmups = 3;
+    private int iterations = 5;
+    private long iterationNanos = 200_000_000L;
+    private long sink;
+
+    public static void main(String[] args) throws Exception {
+        BoardBenchmark benchmark = new BoardBenchmark();
+        String output = null;
+        List<String> boards = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-o":
+                    output = args[++i];
+                    break;
+                case "-w":
+                    benchmark.warmups = Integer.parseInt(args[++i]);
+                    break;
+                case "-i":
+                    benchmark.iterations = Integer.parseInt(args[++i]);
+                    break;
+                case "-t":
+                    benchmark.iterationNanos = Long.parseLong(args[++i]) * 1_000_000L;
+                    break;
+                default:
+                    boards.add(args[i]);
+            }
+        }
+        if (boards.isEmpty()) {
+            boards.addAll(List.of(DEFAULT_BOARDS));
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (String className : boards) {
+            Board board = (Board) Class.forName(className).getDeclaredConstructor().newInstance();
+            results.addAll(benchmark.run(board));
+        }
+        if (output != null) {
+            try (Writer out = new FileWriter(output)) {
+                writeJson(results, out);
+            }
+            System.out.println("Wrote " + results.size() + " results to " + output);
+        }
+        System.out.println("(sink " + benchmark.sink + ")");
+    }
+
+    // Run every benchmark on a position of board's game, printing each result
+    List<Result> run(Board board) throws Exception {
+        Board position = seededPosition(board, SEED);
+        String name = board.getClass().getSimpleName();
+        List<Result> results = new ArrayList<>();
+        List<? extends Board.Move> moves = new ArrayList<>(position.getValidMoves());
+        int[] codes = new int[Math.max(1, moves.size())];
+        int codeCount = position.getValidMoves(codes);
+
+        if (!moves.isEmpty()) {
+            int[] next = new int[1];
+            results.add(measure("applyUndo", name, () -> {
+                Board.Move move = moves.get(next[0]++ % moves.size());
+                position.applyMove(move);
+                long hash = position.getHash();
+                position.undoMove();
+                return hash;
+            }));
+            results.add(measure("applyUndoTrusted", name, () -> {
+                position.applyTrustedMove(codes[next[0]++ % codeCount]);
+                long hash = position.getHash();
+                position.undoMove();
+                return hash;
+            }));
+        } else {
+            System.out.println(name + ": no valid moves, skipping applyUndo and applyUndoTrusted");
+        }
+        results.add(measure("validMoves", name, () -> position.getValidMoves().size()));
+        int[] buffer = new int[codes.length];
+        results.add(measure("validMovesInt", name, () -> position.getValidMoves(buffer)));
+        results.add(measure("value", name, () -> position.getValue()));
+        results.add(measure("copy", name, () -> position.copy().getHash()));
+        results.add(measure("copyReplay", name, () -> replayCopy(position).getHash()));
+        if (!position.getMoveHistory().isEmpty()) {
+            results.add(measure("saveLoad", name, () -> saveAndLoad(position).getHash()));
+        } else {
+            System.out.println(name + ": no moves played, skipping saveLoad");
+        }
+        for (int depth : MINIMAX_DEPTHS) {
+            AiSolver.mmResult best = new AiSolver.mmResult();
+            results.add(measure("minimax" + depth, name, () -> {
+                AiSolver.minimax(position, Integer.MIN_VALUE, Integer.MAX_VALUE, depth, best);
+                return best.Values;
+            }));
+        }
+        return results;
+    }
+
+    // A copy of board advanced by a third of its opening move count in
+    // random moves chosen with seed, stopping early if the game ends
+    static Board seededPosition(Board board, long seed) {
+        Board position = board.copy();
+        Random rnd = new Random(seed);
+        int[] moves = new int[position.getValidMoves(new int[0])];
+        int count = position.getValidMoves(moves);
+        for (int i = 0; i < count / 3 && Math.abs(position.getValue()) < Board.WIN; i++) {
+            int available = position.getValidMoves(moves);
+            if (available == 0) {
+                break;
+            }
+            position.applyTrustedMove(moves[rnd.nextInt(available)]);
+        }
+        return position;
+    }
+
+    private static Board replayCopy(Board board) throws Exception {
+        Board copy = board.getClass().getDeclaredConstructor().newInstance();
+        for (Board.Move move : board.getMoveHistory()) {
+            copy.applyMove(move);
+        }
+        return copy;
+    }
+
+    private static Board saveAndLoad(Board board) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (Board.Move move : board.getMoveHistory()) {
+            move.write(bytes);
+        }
+        ByteArrayInputStream in = new ByteArrayInputStream(bytes.toByteArray());
+        Board loaded = board.getClass().getDeclaredConstructor().newInstance();
+        while (in.available() > 0) {
+            Board.Move move = loaded.createMove();
+            move.read(in);
+            loaded.applyMove(move);
+        }
+        return loaded;
+    }
+
+    private Result measure(String benchmark, String board, Operation op) throws Exception {
+        // Grow the batch until one takes long enough to time, which also
+        // serves as the first warmup
+        int batch = 1;
+        while (timeBatch(op, batch) < MIN_BATCH_NANOS) {
+            batch *= 2;
+        }
+        for (int i = 0; i < warmups; i++) {
+            runIteration(op, batch);
+        }
+        double[] nanosPerOp = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            nanosPerOp[i] = runIteration(op, batch);
+        }
+        Result result = new Result(benchmark, board, nanosPerOp);
+        System.out.println(String.format("%-16s %-16s %14.1f +- %10.1f ns/op", board, benchmark, result.mean(),
+                result.error()));
+        return result;
+    }
+
+    // Run batches of op for iterationNanos, returning the time per operation
+    private double runIteration(Operation op, int batch) throws Exception {
+        long operations = 0;
+        long elapsed = 0;
+        while (elapsed < iterationNanos) {
+            elapsed += timeBatch(op, batch);
+            operations += batch;
+        }
+        return (double) elapsed / operations;
+    }
+
+    private long timeBatch(Operation op, int batch) throws Exception {
+        long total = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < batch; i++) {
+            total += op.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += total;
+        return elapsed;
+    }
+
+    // Write results as a JSON array in the layout of JMH's JSON output
+    static void writeJson(List<Result> results, Writer writer) {
+        PrintWriter out = new PrintWriter(writer);
+        out.println("[");
+        for (int r = 0; r < results.size(); r++) {
+            Result result = results.get(r);
+            out.println("    {");
+            out.println("        \"benchmark\" : \"" + result.benchmark + "\",");
+            out.println("        \"board\" : \"" + result.board + "\",");
+            out.println("        \"mode\" : \"avgt\",");
+            out.println("        \"measurementIterations\" : " + result.nanosPerOp.length + ",");
+            out.println("        \"primaryMetric\" : {");
+            out.println("            \"score\" : " + format(result.mean()) + ",");
+            out.println("            \"scoreError\" : " + format(result.error()) + ",");
+            out.println("            \"scoreUnit\" : \"ns/op\",");
+            StringBuilder raw = new StringBuilder();
+            for (int i = 0; i < result.nanosPerOp.length; i++) {
+                raw.append(i == 0 ? "" : ", ").append(format(result.nanosPerOp[i]));
+            }
+            out.println("            \"rawData\" : [ [ " + raw + " ] ]");
+            out.println("        }");
+            out.println(r == results.size() - 1 ? "    }" : "    },");
+        }
+        out.println("]");
+        out.flush();
+    }
+
+    private static String format(double value) {
+        return String.format(java.util.Locale.ROOT, "%.3f", value);
+    }
+}
@@ -0,0 +1,33 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import org.junit.jupiter.api.Test;
+
+import boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard.BeehiveBoard;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardBenchmarkTest {
+    @Test
+    void testSeededPositionsRepeat() {
+        Board first = BoardBenchmark.seededPosition(new BeehiveBoard(), 7);
+        Board second = BoardBenchmark.seededPosition(new BeehiveBoard(), 7);
+        assertEquals(121 / 3, first.getMoveHistory().size());
+        assertEquals(first.getHash(), second.getHash());
+    }
+
+    @Test
+    void testJsonHasOneObjectPerResult() {
+        java.util.List<BoardBenchmark.Result> results = java.util.List.of(
+                new BoardBenchmark.Result("value", "TTTBoard", new double[] { 10, 12 }),
+                new BoardBenchmark.Result("minimax1", "TTTBoard", new double[] { 1000 }));
+        java.io.StringWriter out = new java.io.StringWriter();
+        BoardBenchmark.writeJson(results, out);
+        String json = out.toString();
+
+        assertTrue(json.trim().startsWith("[") && json.trim().endsWith("]"));
+        assertEquals(2, json.split("\"benchmark\"").length - 1);
+        assertTrue(json.contains("\"score\" : 11.000"));
+        assertTrue(json.contains("\"rawData\" : [ [ 10.000, 12.000 ] ]"));
+        assertTrue(json.contains("\"scoreError\" : 0.000,")); // A single iteration
+    }
+}
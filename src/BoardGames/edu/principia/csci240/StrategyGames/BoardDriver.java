@@ -10,6 +10,12 @@ BoardDriver TTTBoard
 
 Based on this, it sets up Board and Move pointers to objects of the relevant subclass (e.g. to a TTTBoard and TTTMove). These two objects are the "current board" and the "current move". It uses these to operate a main loop performing the commands specified below. It uses reflection or factory methods to create the current board and current move, and makes no mention of any of the specific games in the main source code.
 
+An optional second argument runs the commands of a script non-interactively: the name of a script file, or - to read the script from standard input. For instance:
+
+BoardDriver TTTBoard regression.txt
+
+In this batch mode, commands are read one per line until the script ends or quits, and blank lines are skipped. Output is buffered and written as it fills or when the script ends, and the number of commands and commands/sec are reported on standard error.
+
 3.0 The Commands
 
 showBoard
@@ -61,6 +67,45 @@ testRun seed stepCount
 Like testPlay, but each time the game ends, randomly select a number between 1 and the current number of moves, retract that many moves, and proceed until a total of stepCount "steps" have been made, where a step is either a single forward move or a retraction of 1 or more moves.  Compute the number of retracted moves by randInt on the size of the moveHistory, plus 1.  (This results in a random value from 1 to moveHist.size() inclusive.)
 This is intended as a speed check. You should be able to do a run with 100,000 to 1,000,000 moves, depending on the game, in a reasonably short time.
 
+findMove millis [threads]
+Run the AiSolver's iterative-deepening search on the current board for at most millis milliseconds, on an optional number of threads (default 1). If the board has a tablebase covering the position, look the answer up instead. Print the best move from the deepest completed iteration, with its value, that depth and the number of nodes searched, and make it the current move.
+
+parallelBench depth threads
+Search the current board to depth, first serially and then with AiSolver's parallel search on threads threads. Print each search's move, value, node count and time, and the parallel speedup.
+
+mctsMove millis [threads]
+Run Monte Carlo tree search on the current board for millis milliseconds, on an optional number of threads (default 1). Print the most-visited move, its expected result for player 1 (-1000 to 1000) and the playout rate, and make it the current move. The search tree is kept, so consecutive calls during one game reuse it.
+
+mctsBench millis
+Run Monte Carlo tree search on the current board for millis milliseconds at 1, 2, 4, 8, 16 and 32 threads, with the same random seed each time, and print the playouts/sec and speedup over one thread for each.
+
+showStats
+Print the statistics of the last findMove or parallelBench search: nodes visited and nodes/sec, leaf evaluations, beta cutoffs and the fraction on the first move, transposition table probes and hit rate, the maximum ply reached, and the node count and time of each iteration. The same figures are recorded as Java Flight Recorder events whenever a recording is running.
+
+allocCheck depth
+Search the current board to depth twice and print how many bytes the second search allocated per node, as reported by the JVM for the current thread.
+
+tablebaseBench seed count
+Pick count positions by random play from the current board, seeded with seed as in testPlay. Solve each by looking it up in the board's tablebase and again by a full AiSolver search, and print the time per position for each, the speedup, and how many of the two values agree.
+
+perft depth [divide | parallel [threads]]
+Count the positions exactly depth moves below the current board, by playing out every line of moves, not counting games that end sooner. Print the count, the time taken and the positions/sec. With divide, also print the count below each move of the current board. With parallel, split the moves of the current board across a ForkJoinPool of threads threads (default: one per processor).
+
+archiveGames fileName count seed
+Play count games by random moves from a new board, seeded with seed as in testPlay, each until the game is won or no moves remain, and write them to a GameArchive in fileName. Print the number of games, the archive size and the write rate in games/sec and MB/sec, timing only the writing.
+
+archiveBench fileName count seed
+Open the GameArchive in fileName and read count games chosen at random, seeded with seed, replaying each onto a new board. Print the read rate in games/sec and moves/sec.
+
+loadGame fileName index
+Replace the current board with game index (from 0) of the GameArchive in fileName.
+
+tournament games seed engineA engineB [csvFile [threads]]
+Play up to games games between two AiSolver configurations from the current board, on threads threads (default: one per processor), and print the wins, draws and losses of engineA, its Elo difference and the SPRT result. Games are played in pairs from an opening of two random moves seeded from seed, each engine moving first in one game of the pair. Each engine is a comma-separated list of settings, such as depth=4,mode=pvs,ordering=on,tt=16 or millis=50 (see Tournament.Engine). A CSV row is written to csvFile for each game as it is decided. The match stops early once an SPRT at 95% confidence decides whether engineA is 50 Elo stronger or no stronger.
+
+serviceBench games workers millis seed
+Play games games at once against themselves from the current board, each from an opening of two random moves seeded from seed, with every move found by an EngineService of workers workers given millis ms from when it is asked. No thread waits for a move: each game asks for its next move when the last one arrives. Print the moves played, the moves/sec and the service's queue, wait time and deadline-miss metrics.
+
 quit
 End the main program.
 
@@ -69,20 +114,34 @@ package boardgames.edu.principia.csci240.strategygames;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class BoardDriver {
     private Board board;
     private Board.Move currentMove;
     private Scanner scanner;
-
-    public static void main(String[] args) {
-        if (args.length != 1) {
-            System.out.println("Usage: BoardDriver <BoardClassName>");
+    private PrintStream output = System.out; // Buffered in batch mode
+    private MctsSolver mcts; // Kept between commands so its tree can be reused
+    private SearchStats lastStats; // Of the last AiSolver search, for showStats
+    private static final int TABLEBASE_ROUNDS = 100;
+    private static final long MCTS_BENCH_SEED = 0; // The same for every thread count
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.out.println("Usage: BoardDriver <BoardClassName> [scriptFile | -]");
             return;
         }
         BoardDriver driver = new BoardDriver();
         driver.initializeBoardAndMove(args[0]);
-        driver.runCommandLoop();
+        if (args.length == 1) {
+            driver.runCommandLoop();
+        } else if (args[1].equals("-")) {
+            driver.runBatch(new InputStreamReader(System.in));
+        } else {
+            try (Reader script = new FileReader(args[1])) {
+                driver.runBatch(script);
+            }
+        }
     }
 
     private void initializeBoardAndMove(String className) {
@@ -98,96 +157,224 @@ public class BoardDriver {
     }
 
     private void runCommandLoop() {
-        while (true) {
-            String line = scanner.nextLine();
-            String[] tokens = line.split("\\s+");
-            String command = tokens[0].toLowerCase();
-            try {
-                switch (command) {
-                    case "showboard":
-                        System.out.println(board.toString());
-                        break;
-                    case "showmoves":
+        while (scanner.hasNextLine()) {
+            if (!execute(tokenize(scanner.nextLine()))) {
+                return;
+            }
+        }
+    }
+
+    // Run the commands of a script, one per line, until it ends or quits.
+    // Output goes through one large buffer, flushed at the end, and the
+    // command rate is reported on standard error to keep it out of the output.
+    private void runBatch(Reader script) throws IOException {
+        output = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false);
+        BufferedReader in = new BufferedReader(script, 1 << 16);
+        long commands = 0;
+        long start = System.nanoTime();
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] tokens = tokenize(line);
+                if (tokens.length == 0) {
+                    continue;
+                }
+                commands++;
+                if (!execute(tokens)) {
+                    break;
+                }
+            }
+        } finally {
+            output.flush();
+        }
+        long nanos = System.nanoTime() - start;
+        System.err.println(String.format("%d commands in %d ms, %.0f commands/sec", commands, nanos / 1_000_000,
+                commands * 1e9 / Math.max(1, nanos)));
+    }
+
+    // Split line into words separated by whitespace, without a regex
+    static String[] tokenize(String line) {
+        List<String> tokens = new ArrayList<>(4);
+        int length = line.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && Character.isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && !Character.isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                tokens.add(line.substring(start, i));
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    // Execute one command, returning false if it was quit
+    private boolean execute(String[] tokens) {
+        if (tokens.length == 0) {
+            return true;
+        }
+        String command = tokens[0].toLowerCase();
+        try {
+            switch (command) {
+                case "showboard":
+                    output.println(board.toString());
+                    break;
+                case "showmoves":
+                    showMoves(board.getValidMoves());
+                    break;
+                case "entermove":
+                    if (tokens.length > 1) {
+                        currentMove.fromString(tokens[1]);
+                    }
+                    break;
+                case "showmove":
+                    output.println(currentMove.toString());
+                    break;
+                case "applymove":
+                    try {
+                        board.applyMove(currentMove);
+                    } catch (Board.InvalidMoveException e) {
+                        output.println("Not a permitted move");
                         showMoves(board.getValidMoves());
-                        break;
-                    case "entermove":
-                        if (tokens.length > 1) {
-                            currentMove.fromString(tokens[1]);
-                        }
-                        break;
-                    case "showmove":
-                        System.out.println(currentMove.toString());
-                        break;
-                    case "applymove":
+                    }
+                    break;
+                case "domove":
+                    if (tokens.length > 1) {
+                        currentMove.fromString(tokens[1]);
                         try {
                             board.applyMove(currentMove);
                         } catch (Board.InvalidMoveException e) {
-                            System.out.println("Not a permitted move");
+                            output.println("Not a permitted move");
                             showMoves(board.getValidMoves());
                         }
-                        break;
-                    case "domove":
-                        if (tokens.length > 1) {
-                            currentMove.fromString(tokens[1]);
-                            try {
-                                board.applyMove(currentMove);
-                            } catch (Board.InvalidMoveException e) {
-                                System.out.println("Not a permitted move");
-                                showMoves(board.getValidMoves());
-                            }
-                        }
-                        break;
-                    case "undomoves":
-                        if (tokens.length > 1) {
-                            int count = Integer.parseInt(tokens[1]);
-                            for (int i = 0; i < count && !board.getMoveHistory().isEmpty(); i++) {
-                                board.undoMove();
-                            }
-                        }
-                        break;
-                    case "showval":
-                        System.out.println("Current board value: " + board.getValue());
-                        break;
-                    case "showmovehist":
-                        showMoveHistory();
-                        break;
-                    case "saveboard":
-                        if (tokens.length > 1) {
-                            saveBoard(tokens[1]);
-                        }
-                        break;
-                    case "loadboard":
-                        if (tokens.length > 1) {
-                            loadBoard(tokens[1]);
-                        }
-                        break;
-                    case "comparemove":
-                        if (tokens.length > 1) {
-                            compareMove(tokens[1]);
-                        }
-                        break;
-                    case "showplayer":
-                        System.out.println("Current player: " + board.getCurrentPlayer());
-                        break;
-                    case "testplay":
-                        if (tokens.length > 2) {
-                            testPlay(Long.parseLong(tokens[1]), Integer.parseInt(tokens[2]));
-                        }
-                        break;
-                    case "testrun":
-                        if (tokens.length > 2) {
-                            testRun(Long.parseLong(tokens[1]), Integer.parseInt(tokens[2]));
+                    }
+                    break;
+                case "undomoves":
+                    if (tokens.length > 1) {
+                        int count = Integer.parseInt(tokens[1]);
+                        for (int i = 0; i < count && !board.getMoveHistory().isEmpty(); i++) {
+                            board.undoMove();
                         }
-                        break;
-                    case "quit":
-                        return;
-                    default:
-                        System.out.println("Unknown command: " + command);
-                }
-            } catch (Exception e) {
-                System.out.println("Error executing command: " + e.getMessage());
+                    }
+                    break;
+                case "showval":
+                    output.println("Current board value: " + board.getValue());
+                    break;
+                case "showmovehist":
+                    showMoveHistory();
+                    break;
+                case "saveboard":
+                    if (tokens.length > 1) {
+                        saveBoard(tokens[1]);
+                    }
+                    break;
+                case "loadboard":
+                    if (tokens.length > 1) {
+                        loadBoard(tokens[1]);
+                    }
+                    break;
+                case "comparemove":
+                    if (tokens.length > 1) {
+                        compareMove(tokens[1]);
+                    }
+                    break;
+                case "showplayer":
+                    output.println("Current player: " + board.getCurrentPlayer());
+                    break;
+                case "testplay":
+                    if (tokens.length > 2) {
+                        testPlay(Long.parseLong(tokens[1]), Integer.parseInt(tokens[2]));
+                    }
+                    break;
+                case "testrun":
+                    if (tokens.length > 2) {
+                        testRun(Long.parseLong(tokens[1]), Integer.parseInt(tokens[2]));
+                    }
+                    break;
+                case "findmove":
+                    if (tokens.length > 1) {
+                        findMove(Long.parseLong(tokens[1]),
+                                tokens.length > 2 ? Integer.parseInt(tokens[2]) : 1);
+                    }
+                    break;
+                case "parallelbench":
+                    if (tokens.length > 2) {
+                        parallelBench(Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2]));
+                    }
+                    break;
+                case "alloccheck":
+                    if (tokens.length > 1) {
+                        allocCheck(Integer.parseInt(tokens[1]));
+                    }
+                    break;
+                case "mctsmove":
+                    if (tokens.length > 1) {
+                        mctsMove(Long.parseLong(tokens[1]),
+                                tokens.length > 2 ? Integer.parseInt(tokens[2]) : 1);
+                    }
+                    break;
+                case "mctsbench":
+                    if (tokens.length > 1) {
+                        mctsBench(Long.parseLong(tokens[1]));
+                    }
+                    break;
+                case "tablebasebench":
+                    if (tokens.length > 2) {
+                        tablebaseBench(Long.parseLong(tokens[1]), Integer.parseInt(tokens[2]));
+                    }
+                    break;
+                case "showstats":
+                    showStats();
+                    break;
+                case "perft":
+                    if (tokens.length > 1) {
+                        perft(Integer.parseInt(tokens[1]), tokens.length > 2 ? tokens[2].toLowerCase() : "",
+                                tokens.length > 3 ? Integer.parseInt(tokens[3])
+                                        : Runtime.getRuntime().availableProcessors());
+                    }
+                    break;
+                case "archivegames":
+                    if (tokens.length > 3) {
+                        archiveGames(tokens[1], Integer.parseInt(tokens[2]), Long.parseLong(tokens[3]));
+                    }
+                    break;
+                case "archivebench":
+                    if (tokens.length > 3) {
+                        archiveBench(tokens[1], Integer.parseInt(tokens[2]), Long.parseLong(tokens[3]));
+                    }
+                    break;
+                case "loadgame":
+                    if (tokens.length > 2) {
+                        loadGame(tokens[1], Integer.parseInt(tokens[2]));
+                    }
+                    break;
+                case "tournament":
+                    if (tokens.length > 4) {
+                        tournament(Integer.parseInt(tokens[1]), Long.parseLong(tokens[2]), tokens[3], tokens[4],
+                                tokens.length > 5 ? tokens[5] : null,
+                                tokens.length > 6 ? Integer.parseInt(tokens[6])
+                                        : Runtime.getRuntime().availableProcessors());
+                    }
+                    break;
+                case "servicebench":
+                    if (tokens.length > 4) {
+                        serviceBench(Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2]),
+                                Long.parseLong(tokens[3]), Long.parseLong(tokens[4]));
+                    }
+                    break;
+                case "quit":
+                    return false;
+                default:
+                    output.println("Unknown command: " + command);
             }
+        } catch (Exception e) {
+            output.println("Error executing command: " + e.getMessage());
         }
+        return true;
     }
 
     private void showMoves(List<? extends Board.Move> moves) {
@@ -205,17 +392,18 @@ public class BoardDriver {
         int numColumns = 80 / (maxLength + 1);
         int currentColumn = 0;
 
+        StringBuilder line = new StringBuilder(80);
         for (Board.Move move : moves) {
-            String moveStr = move.toString();
-            System.out.print(String.format("%-" + maxLength + "s ", moveStr));
+            pad(line, move.toString(), maxLength + 1);
             currentColumn++;
             if (currentColumn >= numColumns) {
-                System.out.println();
+                output.println(line);
+                line.setLength(0);
                 currentColumn = 0;
             }
         }
         if (currentColumn > 0) {
-            System.out.println();
+            output.println(line);
         }
     }
 
@@ -227,16 +415,26 @@ public class BoardDriver {
 
         // Use 2 columns of 40 characters each
         int currentColumn = 0;
+        StringBuilder line = new StringBuilder(80);
         for (Board.Move move : history) {
-            System.out.print(String.format("%-40s", move.toString()));
+            pad(line, move.toString(), 40);
             currentColumn++;
             if (currentColumn >= 2) {
-                System.out.println();
+                output.println(line);
+                line.setLength(0);
                 currentColumn = 0;
             }
         }
         if (currentColumn > 0) {
-            System.out.println();
+            output.println(line);
+        }
+    }
+
+    // Append text to line, left-justified in a field of width characters
+    private static void pad(StringBuilder line, String text, int width) {
+        line.append(text);
+        for (int i = text.length(); i < width; i++) {
+            line.append(' ');
         }
     }
 
@@ -246,9 +444,9 @@ public class BoardDriver {
             for (Board.Move move : history) {
                 move.write(out);
             }
-            System.out.println("Board saved successfully.");
+            output.println("Board saved successfully.");
         } catch (IOException e) {
-            System.out.println("Error saving board: " + e.getMessage());
+            output.println("Error saving board: " + e.getMessage());
         }
     }
 
@@ -260,9 +458,74 @@ public class BoardDriver {
                 move.read(in);
                 board.applyMove(move);
             }
-            System.out.println("Board loaded successfully.");
+            output.println("Board loaded successfully.");
+        } catch (Exception e) {
+            output.println("Error loading board: " + e.getMessage());
+        }
+    }
+
+    private void archiveGames(String fileName, int count, long seed) throws Exception {
+        Random rnd = new Random(seed);
+        int[] validMoves = new int[0];
+        long nanos = 0; // Spent writing, not playing
+        long size;
+        long start = System.nanoTime();
+        try (GameArchive.Writer writer = GameArchive.create(java.nio.file.Paths.get(fileName), board)) {
+            for (int game = 0; game < count; game++) {
+                Board played = board.getClass().getDeclaredConstructor().newInstance();
+                while (Math.abs(played.getValue()) < Board.WIN) {
+                    int moves = played.getValidMoves(validMoves);
+                    if (moves > validMoves.length) {
+                        validMoves = new int[moves];
+                        played.getValidMoves(validMoves);
+                    }
+                    if (moves == 0) {
+                        break;
+                    }
+                    played.applyTrustedMove(validMoves[rnd.nextInt(moves)]);
+                }
+                start = System.nanoTime();
+                writer.addGame(played);
+                nanos += System.nanoTime() - start;
+            }
+            size = writer.getSize();
+            start = System.nanoTime();
+        }
+        nanos += System.nanoTime() - start;
+        output.println(String.format("Archived %d games, %d bytes, %.0f games/sec, %.1f MB/sec", count, size,
+                count * 1e9 / Math.max(1, nanos), size * 1e3 / Math.max(1, nanos)));
+    }
+
+    private void archiveBench(String fileName, int count, long seed) throws Exception {
+        try (GameArchive archive = GameArchive.open(java.nio.file.Paths.get(fileName))) {
+            if (archive.getGameCount() == 0) {
+                output.println("Archive has no games");
+                return;
+            }
+            Random rnd = new Random(seed);
+            long moves = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                moves += archive.readGame(rnd.nextInt(archive.getGameCount())).getMoveHistory().size();
+            }
+            long nanos = System.nanoTime() - start;
+            output.println(String.format("Read %d of %d games, %d ms, %.0f games/sec, %.0f moves/sec", count,
+                    archive.getGameCount(), nanos / 1_000_000, count * 1e9 / Math.max(1, nanos),
+                    moves * 1e9 / Math.max(1, nanos)));
+        }
+    }
+
+    private void loadGame(String fileName, int index) {
+        try (GameArchive archive = GameArchive.open(java.nio.file.Paths.get(fileName))) {
+            Board loaded = archive.readGame(index);
+            if (loaded.getClass() != board.getClass()) {
+                output.println("Archive holds " + archive.getBoardClassName() + " games");
+                return;
+            }
+            board = loaded;
+            output.println("Game " + index + " of " + archive.getGameCount() + " loaded successfully.");
         } catch (Exception e) {
-            System.out.println("Error loading board: " + e.getMessage());
+            output.println("Error loading game: " + e.getMessage());
         }
     }
 
@@ -271,56 +534,311 @@ public class BoardDriver {
         otherMove.fromString(moveString);
         int comparison = currentMove.compareTo(otherMove);
         if (comparison < 0) {
-            System.out.println("Current move is less");
+            output.println("Current move is less");
         } else if (comparison > 0) {
-            System.out.println("Current move is greater");
+            output.println("Current move is greater");
         } else {
-            System.out.println("Current move is equal");
+            output.println("Current move is equal");
         }
     }
 
-    private void testPlay(long seed, int moveCount) {
+    private void findMove(long timeBudgetMillis, int threads) throws IOException {
+        AiSolver solver = new AiSolver();
+        solver.setTablebase(board.getTablebase());
+        AiSolver.mmResult result = threads > 1
+                ? solver.searchParallel(board, threads, AiSolver.MAX_DEPTH, timeBudgetMillis)
+                : solver.searchForTime(board, timeBudgetMillis);
+        if (result.currentMove == null) {
+            output.println("No moves available");
+            return;
+        }
+        currentMove.fromString(result.currentMove.toString());
+        lastStats = solver.getStats();
+        output.println("Best move: " + result.currentMove + " (value " + result.Values
+                + ", depth " + result.depth + ", " + lastStats.getNodes() + " nodes)");
+        output.println(String.format("Cutoffs: %d, %.1f%% on the first move", lastStats.getCutoffs(),
+                100 * lastStats.getFirstMoveCutoffRate()));
+    }
+
+    private void tablebaseBench(long seed, int count) {
+        Tablebase tablebase = board.getTablebase();
+        if (tablebase == null) {
+            output.println("No tablebase for this board");
+            return;
+        }
         Random rnd = new Random(seed);
-        for (int i = 0; i < moveCount; i++) {
-            List<? extends Board.Move> validMoves = board.getValidMoves();
-            if (validMoves.isEmpty()) {
-                break;
+        List<Board> positions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Board position = board.copy();
+            int moveCount = rnd.nextInt(position.getValidMoves().size() + 1);
+            for (int n = 0; n < moveCount && Math.abs(position.getValue()) < Board.WIN; n++) {
+                List<? extends Board.Move> moves = position.getValidMoves();
+                try {
+                    position.applyMove(moves.get(rnd.nextInt(moves.size())));
+                } catch (Board.InvalidMoveException e) {
+                    throw new IllegalStateException(e);
+                }
             }
-            int moveIndex = rnd.nextInt(validMoves.size());
+            positions.add(position);
+        }
+
+        // Warm both paths up first, so neither is timed running interpreted
+        AiSolver solver = new AiSolver();
+        for (int i = 0; i < Math.min(count, 200); i++) {
+            solver.searchToDepth(positions.get(i), AiSolver.MAX_DEPTH);
+        }
+        int[] known = new int[count];
+        for (int round = 0; round < 2 * TABLEBASE_ROUNDS; round++) {
+            for (int i = 0; i < count; i++) {
+                tablebase.probe(positions.get(i));
+            }
+        }
+
+        // Lookups are too quick to time one pass of, so time several
+        long start = System.nanoTime();
+        for (int round = 0; round < TABLEBASE_ROUNDS; round++) {
+            for (int i = 0; i < count; i++) {
+                AiSolver.mmResult result = tablebase.probe(positions.get(i));
+                known[i] = result == null ? Integer.MIN_VALUE : result.Values;
+            }
+        }
+        long probeNanos = (System.nanoTime() - start) / TABLEBASE_ROUNDS;
+
+        long searchNanos = 0;
+        long nodes = 0;
+        int agreed = 0;
+        for (int i = 0; i < count; i++) {
+            solver.getTranspositionTable().clear();
+            start = System.nanoTime();
+            AiSolver.mmResult result = solver.searchToDepth(positions.get(i), AiSolver.MAX_DEPTH);
+            searchNanos += System.nanoTime() - start;
+            nodes += solver.getNodes();
+            if (result.Values == known[i]) {
+                agreed++;
+            }
+        }
+
+        output.println(String.format("Tablebase: %.1f ns/position", (double) probeNanos / count));
+        output.println(String.format("Search:    %.1f ns/position, %.1f nodes/position",
+                (double) searchNanos / count, (double) nodes / count));
+        output.println(String.format("Speedup: %.0f, %d of %d values agree",
+                (double) searchNanos / Math.max(1, probeNanos), agreed, count));
+    }
+
+    private void showStats() {
+        if (lastStats == null) {
+            output.println("No search has been run");
+            return;
+        }
+        output.print(lastStats);
+    }
+
+    private void perft(int depth, String mode, int threads) {
+        long start = System.nanoTime();
+        long nodes;
+        if (mode.equals("divide")) {
+            nodes = 0;
+            for (Map.Entry<Board.Move, Long> entry : Perft.divide(board, depth).entrySet()) {
+                output.println(entry.getKey() + ": " + entry.getValue());
+                nodes += entry.getValue();
+            }
+        } else if (mode.equals("parallel")) {
+            java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(threads);
             try {
-                board.applyMove(validMoves.get(moveIndex));
+                nodes = Perft.parallel(board, depth, pool);
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            nodes = Perft.perft(board, depth);
+        }
+        long nanos = System.nanoTime() - start;
+        output.println(String.format("Perft %d: %d positions, %d ms, %.0f positions/sec", depth, nodes,
+                nanos / 1_000_000, nodes * 1e9 / Math.max(1, nanos)));
+    }
+
+    private void tournament(int games, long seed, String engineA, String engineB, String csvFile, int threads)
+            throws IOException, InterruptedException {
+        Tournament match = new Tournament(board, Tournament.Engine.parse(engineA), Tournament.Engine.parse(engineB));
+        match.setThreads(threads);
+        long start = System.nanoTime();
+        int played;
+        if (csvFile != null) {
+            try (Writer csv = new BufferedWriter(new FileWriter(csvFile))) {
+                played = match.run(games, seed, csv);
+            }
+        } else {
+            played = match.run(games, seed, null);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        String decision = match.getDecision() == Tournament.Sprt.ACCEPT_H1 ? "H1 accepted, A is stronger"
+                : match.getDecision() == Tournament.Sprt.ACCEPT_H0 ? "H0 accepted, A is not stronger"
+                        : "undecided";
+        output.println(String.format("A (%s) vs B (%s)", Tournament.Engine.parse(engineA),
+                Tournament.Engine.parse(engineB)));
+        output.println(String.format("%d games in %d ms: +%d =%d -%d, Elo %+.1f", played, millis,
+                match.getWins(), match.getDraws(), match.getLosses(), match.getEloDifference()));
+        output.println(String.format("%s: LLR %.2f, %s", match.getSprt(), match.getLlr(), decision));
+    }
+
+    private void serviceBench(int games, int workers, long millis, long seed) {
+        Random rnd = new Random(seed);
+        List<CompletableFuture<Integer>> played = new ArrayList<>();
+        long start = System.nanoTime();
+        try (EngineService service = new EngineService(workers)) {
+            for (int i = 0; i < games; i++) {
+                Board game = board.copy();
+                for (int n = 0; n < 2 && !isOver(game); n++) {
+                    List<? extends Board.Move> moves = game.getValidMoves();
+                    try {
+                        game.applyMove(moves.get(rnd.nextInt(moves.size())));
+                    } catch (Board.InvalidMoveException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                played.add(playOut(service, game, millis, 0));
+            }
+            int moves = 0;
+            for (CompletableFuture<Integer> game : played) {
+                moves += game.join();
+            }
+            long nanos = System.nanoTime() - start;
+            output.println(String.format("%d games, %d moves in %d ms, %.1f moves/sec", games, moves,
+                    nanos / 1_000_000, moves * 1e9 / Math.max(1, nanos)));
+            output.print(service);
+        }
+    }
+
+    // Play game out with moves from service, completing with how many it took
+    private static CompletableFuture<Integer> playOut(EngineService service, Board game, long millis, int moves) {
+        if (isOver(game)) {
+            return CompletableFuture.completedFuture(moves);
+        }
+        return service.findMove(game, millis).thenCompose(result -> {
+            try {
+                game.applyMove(result.currentMove);
             } catch (Board.InvalidMoveException e) {
-                // Should never happen as we're using valid moves
+                throw new IllegalStateException(e);
+            }
+            return playOut(service, game, millis, moves + 1);
+        });
+    }
+
+    private static boolean isOver(Board game) {
+        return Math.abs(game.getValue()) >= Board.WIN || game.getValidMoves().isEmpty();
+    }
+
+    private void parallelBench(int depth, int threads) {
+        AiSolver serial = new AiSolver();
+        long start = System.nanoTime();
+        AiSolver.mmResult serialResult = serial.searchToDepth(board, depth);
+        long serialNanos = System.nanoTime() - start;
+
+        AiSolver parallel = new AiSolver();
+        start = System.nanoTime();
+        AiSolver.mmResult parallelResult = parallel.searchParallel(board, threads, depth, 0);
+        long parallelNanos = System.nanoTime() - start;
+        lastStats = parallel.getStats();
+
+        output.println("Serial:   " + serialResult.currentMove + " value " + serialResult.Values + ", "
+                + serial.getNodes() + " nodes, " + serialNanos / 1_000_000 + " ms");
+        output.println("Parallel: " + parallelResult.currentMove + " value " + parallelResult.Values + ", "
+                + parallel.getNodes() + " nodes, " + parallelNanos / 1_000_000 + " ms, " + threads + " threads");
+        output.println(String.format("Speedup: %.2f", (double) serialNanos / Math.max(1, parallelNanos)));
+    }
+
+    private void mctsMove(long timeBudgetMillis, int threads) throws IOException {
+        if (mcts == null) {
+            mcts = new MctsSolver();
+        }
+        mcts.setThreads(threads);
+        AiSolver.mmResult result = mcts.searchForTime(board, timeBudgetMillis);
+        if (result.currentMove == null) {
+            output.println("No moves available");
+            return;
+        }
+        currentMove.fromString(result.currentMove.toString());
+        output.println("Best move: " + result.currentMove + " (value " + result.Values + ")");
+        output.println(String.format("%d playouts, %.0f playouts/sec, %d root visits, %d tree nodes",
+                mcts.getPlayouts(), mcts.getPlayoutsPerSecond(), mcts.getRootVisits(), mcts.getNodesUsed()));
+    }
+
+    private void mctsBench(long timeBudgetMillis) {
+        output.println("Threads  Playouts  Playouts/sec  Speedup");
+        double single = 0;
+        for (int threads = 1; threads <= 32; threads *= 2) {
+            MctsSolver solver = new MctsSolver(1 << 20, MCTS_BENCH_SEED);
+            solver.setThreads(threads);
+            solver.searchForTime(board, timeBudgetMillis);
+            double rate = solver.getPlayoutsPerSecond();
+            if (threads == 1) {
+                single = rate;
+            }
+            output.println(String.format("%7d %9d %13.0f %8.2f", threads, solver.getPlayouts(), rate,
+                    rate / Math.max(1, single)));
+        }
+    }
+
+    private void allocCheck(int depth) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory
+                .getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        AiSolver solver = new AiSolver();
+        solver.searchToDepth(board, depth); // Warm up and size the per-ply buffers
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        solver.searchToDepth(board, depth);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        output.println(String.format("%d bytes over %d nodes, %.2f bytes/node", allocated, solver.getNodes(),
+                (double) allocated / Math.max(1, solver.getNodes())));
+    }
+
+    private void testPlay(long seed, int moveCount) {
+        Random rnd = new Random(seed);
+        int[] validMoves = new int[0];
+        for (int i = 0; i < moveCount; i++) {
+            int count = board.getValidMoves(validMoves);
+            if (count > validMoves.length) {
+                validMoves = new int[count];
+                board.getValidMoves(validMoves);
+            }
+            if (count == 0) {
                 break;
             }
+            board.applyTrustedMove(validMoves[rnd.nextInt(count)]);
         }
     }
 
+    // Moves are generated and applied in their int encoding, into a reused
+    // buffer, so the run allocates nothing per step. They come from the board,
+    // so they are applied unchecked.
     private void testRun(long seed, int stepCount) {
         Random rnd = new Random(seed);
+        int[] validMoves = new int[0];
+        int played = board.getMoveHistory().size(); // Counted here, as getMoveHistory may copy
         int steps = 0;
         while (steps < stepCount) {
-            List<? extends Board.Move> validMoves = board.getValidMoves();
-            if (validMoves.isEmpty()) {
+            int count = board.getValidMoves(validMoves);
+            if (count > validMoves.length) {
+                validMoves = new int[count];
+                board.getValidMoves(validMoves);
+            }
+            if (count == 0) {
                 // Game ended, retract some moves
-                List<? extends Board.Move> history = board.getMoveHistory();
-                if (!history.isEmpty()) {
-                    int movesToUndo = rnd.nextInt(history.size()) + 1;
-                    for (int i = 0; i < movesToUndo && !history.isEmpty(); i++) {
-                        board.undoMove();
-                        steps++;
-                    }
+                if (played == 0) {
+                    break;
                 }
-            } else {
-                // Make a move
-                int moveIndex = rnd.nextInt(validMoves.size());
-                try {
-                    board.applyMove(validMoves.get(moveIndex));
+                int movesToUndo = rnd.nextInt(played) + 1;
+                for (int i = 0; i < movesToUndo; i++) {
+                    board.undoMove();
                     steps++;
-                } catch (Board.InvalidMoveException e) {
-                    // Should never happen as we're using valid moves
-                    break;
                 }
+                played -= movesToUndo;
+            } else {
+                // Make a move
+                board.applyTrustedMove(validMoves[rnd.nextInt(count)]);
+                played++;
+                steps++;
             }
         }
     }
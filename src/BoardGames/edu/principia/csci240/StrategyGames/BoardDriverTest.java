@@ -0,0 +1,15 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardDriverTest {
+    @Test
+    void testTokenizeSplitsOnAnyWhitespace() {
+        assertArrayEquals(new String[] { "doMove", "3,4" }, BoardDriver.tokenize("doMove 3,4"));
+        assertArrayEquals(new String[] { "perft", "4", "parallel" }, BoardDriver.tokenize("  perft\t4   parallel "));
+        assertEquals(0, BoardDriver.tokenize("").length);
+        assertEquals(0, BoardDriver.tokenize(" \t ").length);
+    }
+}
@@ -0,0 +1,93 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import java.util.List;
+
+// An unchanging record of a board's position, which any thread may read while
+// the board it was taken from goes on changing, as a spectator view or a
+// background analysis needs. Boards are not safe to read while another thread
+// moves on them, so the snapshot must be taken by the thread that owns the
+// board; after that it belongs to no thread.
+//
+// What a reader usually wants is worked out when the snapshot is taken: the
+// hash, player to move, value, valid moves, move history and picture. For
+// anything else, toBoard() returns a board of the position to work on. It is
+// copied from a private copy that is never moved on, so any number of threads
+// may call it at once.
+public final class BoardSnapshot {
+    private final Board position; // Never changed after construction
+    private final long hash;
+    private final int currentPlayer;
+    private final int value;
+    private final List<Board.Move> validMoves;
+    private final int[] validMoveCodes; // The same moves' int encodings
+    private final List<Board.Move> moveHistory;
+    private final String text;
+
+    private BoardSnapshot(Board position) {
+        this.position = position;
+        hash = position.getHash();
+        currentPlayer = position.getCurrentPlayer();
+        value = position.getValue();
+        int[] moves = new int[0];
+        int count = position.getValidMoves(moves);
+        if (count > 0) {
+            moves = new int[count];
+            position.getValidMoves(moves);
+        }
+        validMoveCodes = moves;
+        validMoves = List.copyOf(position.getValidMoves());
+        moveHistory = List.copyOf(position.getMoveHistory());
+        text = position.toString();
+    }
+
+    // Take a snapshot of brd, on the thread that is using it
+    public static BoardSnapshot of(Board brd) {
+        return new BoardSnapshot(brd.copy());
+    }
+
+    // A new board in the snapshot's position, with its move history, for the
+    // caller to use as it likes
+    public Board toBoard() {
+        return position.copy();
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    // The valid moves, in an unmodifiable list. Moves may be shared with the
+    // board, so callers must not modify them.
+    public List<Board.Move> getValidMoves() {
+        return validMoves;
+    }
+
+    // The valid moves' int encodings, as Board.getValidMoves(int[]) gives
+    // them, in a new array
+    public int[] getValidMoveCodes() {
+        return validMoveCodes.clone();
+    }
+
+    // The moves played to reach the position, in an unmodifiable list. As
+    // with getValidMoves, callers must not modify them.
+    public List<Board.Move> getMoveHistory() {
+        return moveHistory;
+    }
+
+    public String getBoardClassName() {
+        return position.getClass().getName();
+    }
+
+    // The board's picture, as its toString gave it
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,86 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import org.junit.jupiter.api.Test;
+
+import boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard.BeehiveBoard;
+import boardgames.edu.principia.csci240.strategygames.cluhanga.Peg5Board.Peg5Board;
+import boardgames.edu.principia.csci240.strategygames.cluhanga.tictactoe.TTTBoard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardSnapshotTest {
+    @Test
+    void testSnapshotKeepsItsPosition() throws Exception {
+        Board board = BoardBenchmark.seededPosition(new TTTBoard(), 3);
+        BoardSnapshot snapshot = BoardSnapshot.of(board);
+        long hash = board.getHash();
+        String picture = board.toString();
+        int moves = board.getMoveHistory().size();
+
+        board.applyTrustedMove(snapshot.getValidMoveCodes()[0]);
+        assertEquals(hash, snapshot.getHash());
+        assertEquals(picture, snapshot.toString());
+        assertEquals(moves, snapshot.getMoveHistory().size());
+        assertEquals(9 - moves, snapshot.getValidMoves().size());
+        assertEquals(snapshot.getValidMoves().size(), snapshot.getValidMoveCodes().length);
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getMoveHistory().clear());
+
+        Board restored = snapshot.toBoard();
+        assertEquals(hash, restored.getHash());
+        assertNotSame(restored, snapshot.toBoard());
+    }
+
+    @Test
+    void testDefaultCopyReplaysHistory() {
+        Board board = new Peg5Board();
+        Board copy = board.copy();
+        assertNotSame(board, copy);
+        assertEquals(board.getHash(), copy.getHash());
+        assertEquals(board.getCurrentPlayer(), copy.getCurrentPlayer());
+    }
+
+    @Test
+    void testReadersSeeTheSnapshotWhileTheBoardMoves() throws Exception {
+        Board board = BoardBenchmark.seededPosition(new BeehiveBoard(), 5);
+        BoardSnapshot snapshot = BoardSnapshot.of(board);
+        long hash = snapshot.getHash();
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<Boolean>> readers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                readers.add(pool.submit(() -> {
+                    for (int n = 0; n < 200; n++) {
+                        Board copy = snapshot.toBoard();
+                        if (copy.getHash() != hash || copy.getValue() != snapshot.getValue()) {
+                            return false;
+                        }
+                        copy.applyTrustedMove(snapshot.getValidMoveCodes()[n % snapshot.getValidMoveCodes().length]);
+                    }
+                    return true;
+                }));
+            }
+            // Meanwhile the board itself plays on and back
+            int[] moves = new int[121];
+            for (int n = 0; n < 2000; n++) {
+                int count = board.getValidMoves(moves);
+                if (count == 0 || n % 7 == 6) {
+                    board.undoMove();
+                } else {
+                    board.applyTrustedMove(moves[n % count]);
+                }
+            }
+            for (Future<Boolean> reader : readers) {
+                assertTrue(reader.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// An in-process move service for hosting many games at once. A game submits
+// its board with a deadline and gets a CompletableFuture of the move, instead
+// of searching on its own thread, so a few deep searches cannot starve every
+// other game of CPU.
+//
+// Jobs are run by a fixed number of worker threads, each with its own
+// AiSolver and transposition table, earliest deadline first. Each job searches
+// by iterative deepening until its deadline, so it uses however much of its
+// time is left when it starts. The first iteration always completes, so every
+// job gets a move unless it is cancelled, but one that started too late may
+// finish after its deadline; that is counted as a deadline miss.
+//
+// The board is copied when the job is submitted, so the caller may go on
+// using it. Cancelling the future removes a waiting job, or stops a running
+// one at its next clock check. Callers may wait on the future from any
+// thread; waiting takes no worker.
+public class EngineService implements AutoCloseable {
+    private static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+
+    // A submitted search, ordered by deadline and then by submission
+    private static class Job implements Comparable<Job> {
+        final Board board;
+        final long deadline; // System.nanoTime() by which the move is due
+        final long sequence;
+        final long submitted;
+        final AtomicBoolean stop = new AtomicBoolean();
+        final CompletableFuture<AiSolver.mmResult> future = new CompletableFuture<>() {
+            // CompletableFuture.cancel cannot interrupt the search, so signal it
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                stop.set(true);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+
+        Job(Board board, long deadline, long sequence) {
+            this.board = board;
+            this.deadline = deadline;
+            this.sequence = sequence;
+            submitted = System.nanoTime();
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            int order = Long.compare(deadline, other.deadline);
+            return order != 0 ? order : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final PriorityBlockingQueue<Job> queue = new PriorityBlockingQueue<>();
+    private final int queueCapacity;
+    private final List<Thread> workers = new ArrayList<>();
+    private final Object submitLock = new Object(); // Held to check and change the queue or closed
+    private volatile boolean closed;
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Counters, as described by their getters
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong deadlineMisses = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    // A service with the given number of workers, queueing up to
+    // DEFAULT_QUEUE_CAPACITY jobs
+    public EngineService(int workerCount) {
+        this(workerCount, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    // A service with the given number of workers, rejecting jobs submitted
+    // while queueCapacity jobs are waiting
+    public EngineService(int workerCount, int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        for (int i = 0; i < Math.max(1, workerCount); i++) {
+            Thread worker = new Thread(this::work, "engine-worker-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    // Find a move for brd's player within timeBudgetMillis from now. The
+    // future fails with RejectedExecutionException if the queue is full or the
+    // service is closed.
+    public CompletableFuture<AiSolver.mmResult> findMove(Board brd, long timeBudgetMillis) {
+        Job job = new Job(brd.copy(), System.nanoTime() + timeBudgetMillis * 1_000_000L,
+                sequence.getAndIncrement());
+        submitted.incrementAndGet();
+        // Checked and added under the lock, so that the queue never grows past
+        // its capacity and no job is added after close() has drained it
+        synchronized (submitLock) {
+            if (closed || queue.size() >= queueCapacity) {
+                rejected.incrementAndGet();
+                job.future.completeExceptionally(new RejectedExecutionException(
+                        closed ? "Engine service is closed" : "Engine queue is full"));
+                return job.future;
+            }
+            queue.add(job);
+        }
+        // Cancelled jobs are dropped at once, so they do not hold the queue
+        job.future.whenComplete((result, error) -> {
+            if (job.future.isCancelled() && queue.remove(job)) {
+                cancelled.incrementAndGet();
+            }
+        });
+        return job.future;
+    }
+
+    private void work() {
+        AiSolver solver = new AiSolver();
+        while (!closed) {
+            Job job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            run(solver, job);
+        }
+    }
+
+    private void run(AiSolver solver, Job job) {
+        long start = System.nanoTime();
+        long wait = start - job.submitted;
+        totalWaitNanos.addAndGet(wait);
+        maxWaitNanos.accumulateAndGet(wait, Math::max);
+        started.incrementAndGet();
+        if (job.future.isCancelled()) {
+            cancelled.incrementAndGet();
+            return;
+        }
+        try {
+            solver.setStopSignal(job.stop);
+            long millis = Math.max(0, (job.deadline - start) / 1_000_000L);
+            AiSolver.mmResult best = solver.searchForTime(job.board, millis);
+            if (job.future.isCancelled()) {
+                cancelled.incrementAndGet();
+                return;
+            }
+            if (System.nanoTime() > job.deadline) {
+                deadlineMisses.incrementAndGet();
+            }
+            completed.incrementAndGet();
+            job.future.complete(best);
+        } catch (RuntimeException | Error e) {
+            completed.incrementAndGet();
+            job.future.completeExceptionally(e);
+        } finally {
+            solver.setStopSignal(null);
+        }
+    }
+
+    // Cancel every job still waiting and stop the workers once their current
+    // searches finish. Later jobs are rejected.
+    @Override
+    public void close() {
+        List<Job> waiting = new ArrayList<>();
+        synchronized (submitLock) {
+            closed = true;
+            queue.drainTo(waiting);
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Job job : waiting) {
+            cancelled.incrementAndGet();
+            job.future.cancel(false);
+        }
+    }
+
+    // Jobs waiting for a worker
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    // Jobs submitted, including those rejected
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    // Jobs refused because the queue was full or the service closed
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    // Jobs that ran to a result or an error
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    // Jobs cancelled before or while running
+    public long getCancelled() {
+        return cancelled.get();
+    }
+
+    // Completed jobs whose result came after their deadline
+    public long getDeadlineMisses() {
+        return deadlineMisses.get();
+    }
+
+    // Mean and longest time from submission until a worker took the job, over
+    // jobs taken so far
+    public double getMeanWaitMillis() {
+        long jobs = started.get();
+        return jobs == 0 ? 0.0 : totalWaitNanos.get() / 1e6 / jobs;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Queue depth %d, submitted %d, rejected %d, completed %d, cancelled %d%n"
+                + "Deadline misses %d (%.1f%%), wait mean %.2f ms, max %.2f ms%n", getQueueDepth(),
+                getSubmitted(), getRejected(), getCompleted(), getCancelled(), getDeadlineMisses(),
+                100.0 * getDeadlineMisses() / Math.max(1, getCompleted()), getMeanWaitMillis(),
+                getMaxWaitMillis());
+    }
+}
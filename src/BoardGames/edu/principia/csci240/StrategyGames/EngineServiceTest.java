@@ -0,0 +1,166 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import org.junit.jupiter.api.Test;
+
+import boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard.BeehiveBoard;
+import boardgames.edu.principia.csci240.strategygames.cluhanga.tictactoe.TTTBoard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineServiceTest {
+    @Test
+    void testFindsTheSameMoveAsASearch() throws Exception {
+        TTTBoard board = new TTTBoard();
+        Board.Move move = board.createMove();
+        for (String cell : new String[] {"2,2", "1,1", "3,3"}) {
+            move.fromString(cell);
+            board.applyMove(move);
+        }
+        try (EngineService service = new EngineService(2)) {
+            AiSolver.mmResult result = service.findMove(board, 200).get();
+            assertEquals(new AiSolver().searchToDepth(board, AiSolver.MAX_DEPTH).Values, result.Values);
+            assertEquals(3, board.getMoveHistory().size(), "The caller's board is left alone");
+            assertEquals(1, service.getCompleted());
+            assertEquals(0, service.getDeadlineMisses());
+        }
+    }
+
+    @Test
+    void testEarliestDeadlineRunsFirst() throws Exception {
+        try (EngineService service = new EngineService(1)) {
+            // Occupy the only worker, so the rest queue up behind it
+            CompletableFuture<AiSolver.mmResult> blocker = service.findMove(new BeehiveBoard(), 300);
+            while (service.getQueueDepth() > 0) {
+                Thread.sleep(1);
+            }
+
+            List<Long> order = new ArrayList<>();
+            CountDownLatch done = new CountDownLatch(3);
+            long[] budgets = {3000, 1000, 2000};
+            for (long budget : budgets) {
+                service.findMove(new TTTBoard(), budget).thenRun(() -> {
+                    synchronized (order) {
+                        order.add(budget);
+                    }
+                    done.countDown();
+                });
+            }
+            assertEquals(3, service.getQueueDepth());
+            blocker.get();
+            done.await();
+            assertEquals(List.of(1000L, 2000L, 3000L), order);
+        }
+    }
+
+    @Test
+    void testCancelledJobsAreDroppedOrStopped() throws Exception {
+        try (EngineService service = new EngineService(1)) {
+            CompletableFuture<AiSolver.mmResult> running = service.findMove(new BeehiveBoard(), 60_000);
+            CompletableFuture<AiSolver.mmResult> waiting = service.findMove(new BeehiveBoard(), 60_000);
+            while (service.getQueueDepth() > 1) {
+                Thread.sleep(1);
+            }
+            assertTrue(waiting.cancel(false));
+            assertEquals(0, service.getQueueDepth());
+
+            long start = System.nanoTime();
+            assertTrue(running.cancel(false));
+            // The worker is free for the next job once the search notices
+            assertNotNull(service.findMove(new TTTBoard(), 1000).get().currentMove);
+            assertTrue(System.nanoTime() - start < 10_000_000_000L);
+            assertEquals(2, service.getCancelled());
+            assertEquals(1, service.getCompleted());
+        }
+    }
+
+    @Test
+    void testFullQueueAndClosedServiceReject() throws Exception {
+        EngineService service = new EngineService(1, 1);
+        service.findMove(new BeehiveBoard(), 200);
+        while (service.getQueueDepth() > 0) {
+            Thread.sleep(1);
+        }
+        CompletableFuture<AiSolver.mmResult> queued = service.findMove(new TTTBoard(), 200);
+        ExecutionException full = assertThrows(ExecutionException.class,
+                () -> service.findMove(new TTTBoard(), 200).get());
+        assertInstanceOf(RejectedExecutionException.class, full.getCause());
+
+        service.close();
+        assertTrue(queued.isCancelled());
+        ExecutionException closed = assertThrows(ExecutionException.class,
+                () -> service.findMove(new TTTBoard(), 200).get());
+        assertInstanceOf(RejectedExecutionException.class, closed.getCause());
+        assertEquals(4, service.getSubmitted());
+        assertEquals(2, service.getRejected());
+    }
+
+    @Test
+    void testConcurrentSubmitsRespectCapacityAndClose() throws Exception {
+        EngineService service = new EngineService(1, 10);
+        CompletableFuture<AiSolver.mmResult> blocker = service.findMove(new BeehiveBoard(), 60_000);
+        while (service.getQueueDepth() > 0) {
+            Thread.sleep(1);
+        }
+
+        // Submitters race each other for the queue, and then close()
+        List<CompletableFuture<AiSolver.mmResult>> futures =
+                java.util.Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> submitters = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread submitter = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 200; i++) {
+                    futures.add(service.findMove(new TTTBoard(), 60_000));
+                }
+            });
+            submitters.add(submitter);
+            submitter.start();
+        }
+        start.countDown();
+        while (futures.size() < 400) {
+            Thread.sleep(1);
+        }
+        assertTrue(service.getQueueDepth() <= 10);
+        service.close();
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+        blocker.cancel(false);
+
+        int accepted = 0;
+        for (CompletableFuture<AiSolver.mmResult> future : futures) {
+            assertTrue(future.isDone(), "Every job is rejected or cancelled once the service is closed");
+            accepted += future.isCancelled() ? 1 : 0;
+        }
+        assertEquals(10, accepted);
+        assertEquals(futures.size() - 10, service.getRejected());
+    }
+
+    @Test
+    void testLateJobsCountAsDeadlineMisses() throws Exception {
+        try (EngineService service = new EngineService(1)) {
+            CompletableFuture<AiSolver.mmResult> blocker = service.findMove(new BeehiveBoard(), 200);
+            while (service.getQueueDepth() > 0) {
+                Thread.sleep(1);
+            }
+            // Due before the worker is free, but still given a move
+            CompletableFuture<AiSolver.mmResult> late = service.findMove(new TTTBoard(), 10);
+            assertNotNull(late.get().currentMove);
+            blocker.get();
+            assertTrue(service.getDeadlineMisses() >= 1);
+            assertTrue(service.getMaxWaitMillis() >= 10);
+        }
+    }
+}
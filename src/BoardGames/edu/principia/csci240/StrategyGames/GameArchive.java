@@ -0,0 +1,294 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// A file of many games of one Board type, each stored as its move history, as
+// saveBoard does for one game. The file is read through a memory map, so
+// reading game N touches only the pages holding game N, and moves are read
+// straight from the mapped pages with no copying into buffers.
+//
+// The layout, with numbers big-endian:
+// - Header: magic "BGAR", version, then the Board's class name as a
+//   DataOutputStream UTF string.
+// - Records, one per game: the byte length of its moves as an unsigned
+//   varint (7 bits per byte, low bits first, high bit set on all but the
+//   last), then each move in order, as written by Move.write.
+// - Index: the offset of each record, as 8-byte longs.
+// - Trailer: the index's offset and the game count, then the magic again.
+// Records are written as games are added and the index when the archive is
+// closed, so an archive that was never closed has no trailer and is rejected.
+//
+// The whole file is mapped as one buffer, so archives are limited to 2GB.
+public class GameArchive implements Closeable {
+    private static final int MAGIC = 0x42474152; // "BGAR"
+    private static final int VERSION = 1;
+    private static final int TRAILER_SIZE = 8 + 4 + 4;
+
+    private final FileChannel channel;
+    private final ByteBuffer data;
+    private final Board prototype; // For createMove, and the class of boards made by readGame
+    private final int indexOffset;
+    private final int gameCount;
+
+    private GameArchive(FileChannel channel, ByteBuffer data, Board prototype, int indexOffset,
+            int gameCount) {
+        this.channel = channel;
+        this.data = data;
+        this.prototype = prototype;
+        this.indexOffset = indexOffset;
+        this.gameCount = gameCount;
+    }
+
+    // Start a new archive at path, replacing any file there, for games of
+    // board's class
+    public static Writer create(Path path, Board board) throws IOException {
+        return new Writer(path, board.getClass().getName());
+    }
+
+    // Open the archive at path for reading, checking its header and trailer
+    public static GameArchive open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Archive is larger than 2GB: " + path);
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (size < 8 + 2 + TRAILER_SIZE || data.getInt(0) != MAGIC
+                    || data.getInt((int) size - 4) != MAGIC) {
+                throw new IOException("Not a complete game archive: " + path);
+            }
+            int version = data.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported game archive version " + version);
+            }
+
+            int nameLength = data.getShort(8) & 0xFFFF;
+            byte[] name = new byte[nameLength];
+            data.get(10, name);
+            Board prototype = newBoard(new String(name, StandardCharsets.UTF_8));
+
+            long indexOffset = data.getLong((int) size - TRAILER_SIZE);
+            int gameCount = data.getInt((int) size - TRAILER_SIZE + 8);
+            if (gameCount < 0 || indexOffset < 10 + nameLength
+                    || indexOffset + 8L * gameCount != size - TRAILER_SIZE) {
+                throw new IOException("Corrupt game archive index: " + path);
+            }
+            return new GameArchive(channel, data, prototype, (int) indexOffset, gameCount);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getGameCount() {
+        return gameCount;
+    }
+
+    // The class name of the archive's boards, from its header
+    public String getBoardClassName() {
+        return prototype.getClass().getName();
+    }
+
+    // The moves of game n, from 0, in the order they were played. Reads share
+    // nothing but the mapped file, so threads may read concurrently.
+    public List<Board.Move> readMoves(int n) throws IOException {
+        List<Board.Move> moves = new ArrayList<>();
+        InputStream in = record(n);
+        while (in.available() > 0) {
+            Board.Move move = prototype.createMove();
+            move.read(in);
+            moves.add(move);
+        }
+        return moves;
+    }
+
+    // A new board with the moves of game n applied
+    public Board readGame(int n) throws IOException, Board.InvalidMoveException {
+        Board board = newBoard(prototype.getClass().getName());
+        InputStream in = record(n);
+        while (in.available() > 0) {
+            Board.Move move = board.createMove(); // Boards may keep the moves they apply
+            move.read(in);
+            board.applyMove(move);
+        }
+        return board;
+    }
+
+    // The moves of record n, as a stream over the mapped pages
+    private InputStream record(int n) throws IOException {
+        if (n < 0 || n >= gameCount) {
+            throw new IndexOutOfBoundsException("Game " + n + " of " + gameCount);
+        }
+        long offset = data.getLong(indexOffset + 8 * n);
+        if (offset < 0 || offset >= indexOffset) {
+            throw new IOException("Corrupt game archive index entry " + n);
+        }
+        int position = (int) offset;
+        int length = 0;
+        for (int shift = 0;; shift += 7) {
+            int b = data.get(position++);
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+            if (shift > 21) {
+                throw new IOException("Corrupt length of game " + n);
+            }
+        }
+        if (length < 0 || position + length > indexOffset) {
+            throw new IOException("Corrupt length of game " + n);
+        }
+        return new BufferInputStream(data.slice(position, length));
+    }
+
+    // Close the file. The mapping itself is released when it is garbage
+    // collected, as Java offers no way to unmap it sooner.
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Create a board of the class named in the header. The class is checked to
+    // be a Board before it is initialized, so a file cannot make any other
+    // class run code.
+    private static Board newBoard(String className) throws IOException {
+        try {
+            Class<?> boardClass = Class.forName(className, false, GameArchive.class.getClassLoader());
+            if (!Board.class.isAssignableFrom(boardClass)) {
+                throw new IOException("Archived board class " + className + " is not a Board");
+            }
+            return boardClass.asSubclass(Board.class).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Cannot create archived board " + className, e);
+        }
+    }
+
+    // Writes an archive one game at a time. Games are written through a buffer,
+    // and the index is kept in memory until close.
+    public static class Writer implements Closeable {
+        private final DataOutputStream out;
+        private final String boardClassName;
+        private final ByteArrayOutputStream moves = new ByteArrayOutputStream();
+        private long[] offsets = new long[1024];
+        private int gameCount;
+        private long position;
+
+        private Writer(Path path, String boardClassName) throws IOException {
+            this.boardClassName = boardClassName;
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path.toFile()), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(boardClassName);
+            position = out.size();
+        }
+
+        // Add the game played on board so far, which must be of the archive's
+        // board class
+        public void addGame(Board board) throws IOException {
+            if (!board.getClass().getName().equals(boardClassName)) {
+                throw new IllegalArgumentException("Archive holds " + boardClassName + " games, not "
+                        + board.getClass().getName());
+            }
+            addGame(board.getMoveHistory());
+        }
+
+        // Add a game with the given moves, in the order they were played
+        public void addGame(List<? extends Board.Move> history) throws IOException {
+            moves.reset();
+            for (Board.Move move : history) {
+                move.write(moves);
+            }
+            if (gameCount == offsets.length) {
+                offsets = java.util.Arrays.copyOf(offsets, 2 * gameCount);
+            }
+            offsets[gameCount++] = position;
+            position += writeVarint(out, moves.size()) + moves.size();
+            moves.writeTo(out);
+        }
+
+        public int getGameCount() {
+            return gameCount;
+        }
+
+        // The bytes written so far, which is the archive's size less its index
+        // and trailer
+        public long getSize() {
+            return position;
+        }
+
+        // Write the index and trailer and close the file
+        @Override
+        public void close() throws IOException {
+            try {
+                for (int i = 0; i < gameCount; i++) {
+                    out.writeLong(offsets[i]);
+                }
+                out.writeLong(position);
+                out.writeInt(gameCount);
+                out.writeInt(MAGIC);
+            } finally {
+                out.close();
+            }
+        }
+
+        // Write value as an unsigned varint, returning the bytes written
+        private static int writeVarint(OutputStream os, int value) throws IOException {
+            int bytes = 1;
+            while ((value & ~0x7F) != 0) {
+                os.write(value & 0x7F | 0x80);
+                value >>>= 7;
+                bytes++;
+            }
+            os.write(value);
+            return bytes;
+        }
+    }
+
+    // An InputStream over a buffer, for handing mapped bytes to Move.read
+    private static class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
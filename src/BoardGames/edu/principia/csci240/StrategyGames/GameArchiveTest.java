@@ -0,0 +1,125 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard.BeehiveBoard;
+import boardgames.edu.principia.csci240.strategygames.cluhanga.tictactoe.TTTBoard;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameArchiveTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void testGamesReadBackInAnyOrder() throws Exception {
+        Path path = dir.resolve("ttt.games");
+        List<Board> games = new ArrayList<>();
+        try (GameArchive.Writer writer = GameArchive.create(path, new TTTBoard())) {
+            writer.addGame(new TTTBoard()); // An empty game
+            for (int seed = 0; seed < 200; seed++) {
+                // Each call plays on by a third of the moves left, for varied lengths
+                Board game = BoardBenchmark.seededPosition(new TTTBoard(), seed);
+                for (int i = 0; i < seed % 3; i++) {
+                    game = BoardBenchmark.seededPosition(game, seed + i);
+                }
+                writer.addGame(game);
+                games.add(game);
+            }
+        }
+
+        try (GameArchive archive = GameArchive.open(path)) {
+            assertEquals(201, archive.getGameCount());
+            assertEquals(TTTBoard.class.getName(), archive.getBoardClassName());
+            assertTrue(archive.readMoves(0).isEmpty());
+            for (int n = games.size(); n > 0; n -= 7) {
+                Board expected = games.get(n - 1);
+                assertEquals(expected.getMoveHistory(), archive.readMoves(n));
+                Board read = archive.readGame(n);
+                assertEquals(expected.getHash(), read.getHash());
+                assertEquals(expected.getMoveHistory(), read.getMoveHistory());
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> archive.readMoves(201));
+        }
+    }
+
+    @Test
+    void testLongRecordsUseMultiByteLengths() throws Exception {
+        // Beehive moves are a byte each, so these records need two- and
+        // three-byte lengths
+        Path path = dir.resolve("beehive.games");
+        Board board = new BeehiveBoard();
+        List<Board.Move> twoBytes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            twoBytes.add(board.decodeMove(i % 121));
+        }
+        List<Board.Move> threeBytes = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            threeBytes.add(board.decodeMove(i * 7 % 121));
+        }
+        Board game = BoardBenchmark.seededPosition(new BeehiveBoard(), 3);
+        try (GameArchive.Writer writer = GameArchive.create(path, game)) {
+            writer.addGame(game);
+            long start = writer.getSize();
+            writer.addGame(twoBytes);
+            assertEquals(2 + 200, writer.getSize() - start);
+            start = writer.getSize();
+            writer.addGame(threeBytes);
+            assertEquals(3 + 20_000, writer.getSize() - start);
+            writer.addGame(new BeehiveBoard());
+            assertThrows(IllegalArgumentException.class, () -> writer.addGame(new TTTBoard()));
+        }
+        try (GameArchive archive = GameArchive.open(path)) {
+            assertEquals(4, archive.getGameCount());
+            assertEquals(game.getMoveHistory(), archive.readGame(0).getMoveHistory());
+            assertEquals(twoBytes, archive.readMoves(1));
+            assertEquals(threeBytes, archive.readMoves(2));
+            assertTrue(archive.readMoves(3).isEmpty());
+        }
+    }
+
+    // Set if NotABoard is ever initialized
+    static boolean notABoardInitialized;
+
+    static class NotABoard {
+        static {
+            notABoardInitialized = true;
+        }
+    }
+
+    @Test
+    void testHeaderNamingAnotherClassIsRejectedUnrun() throws Exception {
+        Path path = dir.resolve("other.games");
+        try (java.io.DataOutputStream out = new java.io.DataOutputStream(
+                new java.io.FileOutputStream(path.toFile()))) {
+            out.writeInt(0x42474152); // "BGAR"
+            out.writeInt(1);
+            out.writeUTF(NotABoard.class.getName());
+            out.writeLong(out.size()); // An empty index
+            out.writeInt(0);
+            out.writeInt(0x42474152);
+        }
+        IOException e = assertThrows(IOException.class, () -> GameArchive.open(path));
+        assertTrue(e.getMessage().contains("is not a Board"), e.getMessage());
+        assertFalse(notABoardInitialized);
+    }
+
+    @Test
+    void testUnfinishedArchiveIsRejected() throws Exception {
+        Path path = dir.resolve("cut.games");
+        try (GameArchive.Writer writer = GameArchive.create(path, new TTTBoard())) {
+            writer.addGame(BoardBenchmark.seededPosition(new TTTBoard(), 1));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(file.length() - 4);
+        }
+        assertThrows(IOException.class, () -> GameArchive.open(path));
+    }
+}
@@ -0,0 +1,71 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+// The standard move-ordering heuristics for alpha-beta search.
+//
+// Killer moves: the last two moves that caused a cutoff at each ply are tried
+// before other moves at that ply, since sibling positions are often refuted by
+// the same move.
+//
+// History: every cutoff adds depth * depth to a per-move counter, so moves that
+// have refuted deep subtrees anywhere in the tree are tried earlier. Counters
+// are halved at the start of each search so old games fade out.
+//
+// Moves are identified by their int encoding, and history counters are indexed
+// by it. Moves whose encodings collide in the table share a counter, as do the
+// moves of boards that number moves only by position in the move list, which
+// only costs ordering quality.
+public class HeuristicOrdering implements MoveOrdering {
+    private static final int KILLER_SLOTS = 2;
+    private static final int KILLER_SCORE = 1 << 30;
+    private static final int HISTORY_LIMIT = KILLER_SCORE - 1;
+    private static final int HISTORY_SIZE = 1 << 12;
+    private static final int NO_KILLER = -1;
+
+    private final int[][] killers = new int[AiSolver.MAX_DEPTH + 1][KILLER_SLOTS];
+    private final int[] history = new int[HISTORY_SIZE];
+
+    public HeuristicOrdering() {
+        clearKillers();
+    }
+
+    @Override
+    public void newSearch() {
+        clearKillers();
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            history[i] /= 2;
+        }
+    }
+
+    private void clearKillers() {
+        for (int[] slots : killers) {
+            java.util.Arrays.fill(slots, NO_KILLER);
+        }
+    }
+
+    @Override
+    public int score(int move, int ply) {
+        if (ply < killers.length) {
+            for (int slot = 0; slot < KILLER_SLOTS; slot++) {
+                if (move == killers[ply][slot]) {
+                    return KILLER_SCORE + KILLER_SLOTS - slot;
+                }
+            }
+        }
+        return history[move & (HISTORY_SIZE - 1)];
+    }
+
+    @Override
+    public void cutoff(int move, int ply, int depth) {
+        if (ply < killers.length && move != killers[ply][0]) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int slot = move & (HISTORY_SIZE - 1);
+        history[slot] = Math.min(HISTORY_LIMIT, history[slot] + depth * depth);
+    }
+
+    @Override
+    public MoveOrdering copy() {
+        return new HeuristicOrdering();
+    }
+}
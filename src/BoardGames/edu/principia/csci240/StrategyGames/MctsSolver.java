@@ -0,0 +1,372 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Monte Carlo tree search (UCT) over any Board.
+//
+// Each playout walks down the tree choosing children by the UCB1 formula,
+// expands a leaf by adding all its moves as children, plays random moves to
+// the end of the game and backs the result up the path. The best move is the
+// root child with the most visits.
+//
+// Nodes live in a fixed-size pool of parallel arrays, so memory is bounded by
+// the pool size given to the constructor. Once the pool is full the tree stops
+// growing and playouts start from its leaves. The children of a node are
+// stored contiguously, child i standing for the i-th move of getValidMoves().
+// Moves are generated and applied in their int encoding.
+//
+// The tree is kept between searches. If the next search is on the same game a
+// few moves later, the subtree for the moves played since becomes the new root.
+//
+// With setThreads(n) the search is tree-parallel: n threads, each on its own
+// copy of the board, descend the one shared tree. Node statistics are atomic
+// counters, updated without locks. A thread counts its visit to a node on the
+// way down (a virtual loss, until the result arrives), which steers other
+// threads towards different lines. Expanding a node is claimed by one thread
+// with a compare-and-set; the others play out from it meanwhile.
+public class MctsSolver {
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final int NO_CHILDREN = -1;
+    private static final int EXPANDING = -2;
+    private static final int DEFAULT_POOL_SIZE = 1 << 20;
+
+    private final int capacity;
+    private final AtomicIntegerArray firstChild; // Pool index of the first child, or NO_CHILDREN
+    private final AtomicIntegerArray childCount;
+    private final AtomicIntegerArray visits;
+    private final AtomicLongArray halfWins; // In half points, for the player who moved into the node
+    private final AtomicInteger nodeCount = new AtomicInteger();
+    private int root = -1;
+    private List<Board.Move> rootHistory = new ArrayList<>(); // Moves leading to root
+
+    private final long seed;
+    private int threads = 1;
+    private Worker mainWorker;
+    private final AtomicLong playouts = new AtomicLong(); // Claimed by workers
+    private long completedPlayouts;
+    private long elapsedNanos;
+
+    public MctsSolver() {
+        this(DEFAULT_POOL_SIZE, 0);
+    }
+
+    // Create a solver whose tree holds at most poolSize nodes, using seed for
+    // its random playouts
+    public MctsSolver(int poolSize, long seed) {
+        capacity = poolSize;
+        firstChild = new AtomicIntegerArray(poolSize);
+        childCount = new AtomicIntegerArray(poolSize);
+        visits = new AtomicIntegerArray(poolSize);
+        halfWins = new AtomicLongArray(poolSize);
+        this.seed = seed;
+        mainWorker = new Worker(seed);
+    }
+
+    // Search on this many threads; 1, the default, searches on the caller's
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    // Run the given number of playouts from brd and return the best move. Values
+    // is the expected result for player 1, scaled from -1000 (loss) to 1000
+    // (win). The board is left unchanged.
+    public AiSolver.mmResult searchPlayouts(Board brd, long playoutCount) {
+        return search(brd, playoutCount, Long.MAX_VALUE);
+    }
+
+    // Run playouts from brd until timeBudgetMillis has elapsed, as above
+    public AiSolver.mmResult searchForTime(Board brd, long timeBudgetMillis) {
+        return search(brd, Long.MAX_VALUE, System.nanoTime() + timeBudgetMillis * 1_000_000L);
+    }
+
+    private AiSolver.mmResult search(Board brd, long playoutCount, long deadline) {
+        long start = System.nanoTime();
+        reuseTree(brd);
+        playouts.set(0);
+
+        ExecutorService pool = threads > 1 ? Executors.newFixedThreadPool(threads - 1) : null;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int id = 1; id < threads; id++) {
+                Worker helper = new Worker(seed + id);
+                Board copy = brd.copy();
+                futures.add(pool.submit(() -> helper.run(copy, playoutCount, deadline)));
+            }
+            mainWorker.run(brd, playoutCount, deadline);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("Parallel search failed", e);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        // Each thread claims one more playout than it runs, the one it stops on
+        completedPlayouts = playouts.get() - threads;
+        elapsedNanos = System.nanoTime() - start;
+        return bestMove(brd);
+    }
+
+    // Point root at the node for brd's position if the tree already holds it,
+    // otherwise start a new tree
+    private void reuseTree(Board brd) {
+        List<Board.Move> history = new ArrayList<>(brd.getMoveHistory());
+        int node = root;
+        if (node < 0 || history.size() < rootHistory.size()
+                || !history.subList(0, rootHistory.size()).equals(rootHistory)
+                || nodeCount.get() > capacity / 2) {
+            node = -1;
+        } else {
+            // Step back to the old root, then follow the moves played since
+            int extra = history.size() - rootHistory.size();
+            for (int i = 0; i < extra; i++) {
+                brd.undoMove();
+            }
+            for (int i = rootHistory.size(); i < history.size(); i++) {
+                Board.Move played = history.get(i);
+                if (node >= 0 && firstChild.get(node) >= 0) {
+                    mainWorker.generateMoves(brd, 0);
+                    int[] moves = mainWorker.moveBuffers.get(0);
+                    int code = brd.encodeMove(played);
+                    int child = -1;
+                    for (int n = 0; n < childCount.get(node); n++) {
+                        if (moves[n] == code) {
+                            child = firstChild.get(node) + n;
+                            break;
+                        }
+                    }
+                    node = child;
+                } else {
+                    node = -1;
+                }
+                apply(brd, played);
+            }
+        }
+
+        if (node < 0) {
+            nodeCount.set(1);
+            node = 0;
+            clearNode(0);
+        }
+        root = node;
+        rootHistory = history;
+    }
+
+    private void clearNode(int node) {
+        firstChild.set(node, NO_CHILDREN);
+        childCount.set(node, 0);
+        visits.set(node, 0);
+        halfWins.set(node, 0);
+    }
+
+    // Reserve count contiguous pool nodes, returning the first, or -1 if the
+    // pool is too full
+    private int allocate(int count) {
+        while (true) {
+            int used = nodeCount.get();
+            if (used + count > capacity) {
+                return -1;
+            }
+            if (nodeCount.compareAndSet(used, used + count)) {
+                return used;
+            }
+        }
+    }
+
+    private AiSolver.mmResult bestMove(Board brd) {
+        AiSolver.mmResult result = new AiSolver.mmResult();
+        int first = firstChild.get(root);
+        if (first < 0) {
+            result.Values = brd.getValue();
+            return result;
+        }
+        mainWorker.generateMoves(brd, 0);
+        int[] moves = mainWorker.moveBuffers.get(0);
+        int best = 0;
+        for (int n = 1; n < childCount.get(root); n++) {
+            if (visits.get(first + n) > visits.get(first + best)) {
+                best = n;
+            }
+        }
+        int child = first + best;
+        double rate = visits.get(child) == 0 ? 0.5 : halfWins.get(child) / (2.0 * visits.get(child));
+        if (brd.getCurrentPlayer() != Board.PLAYER_1) {
+            rate = 1.0 - rate;
+        }
+        result.currentMove = brd.decodeMove(moves[best]);
+        result.Values = (int) Math.round((2 * rate - 1) * 1000);
+        return result;
+    }
+
+    private static void apply(Board brd, Board.Move move) {
+        try {
+            brd.applyMove(move);
+        } catch (Board.InvalidMoveException e) {
+            throw new IllegalStateException("Generated move was rejected: " + move, e);
+        }
+    }
+
+    // The state one search thread needs of its own
+    private class Worker {
+        private final Random random;
+        private final List<int[]> moveBuffers = new ArrayList<>(); // One per tree depth
+        private int[] playoutMoves = new int[0];
+        private int[] path = new int[64];
+        private int[] movers = new int[64];
+
+        Worker(long seed) {
+            random = new Random(seed);
+        }
+
+        void run(Board brd, long playoutCount, long deadline) {
+            while (playouts.getAndIncrement() < playoutCount && System.nanoTime() < deadline) {
+                playout(brd);
+            }
+        }
+
+        private void playout(Board brd) {
+            int node = root;
+            int length = 0;
+            path[length++] = node;
+            visits.incrementAndGet(node);
+            int value = brd.getValue();
+
+            // Selection and expansion
+            while (Math.abs(value) < Board.WIN) {
+                int count = generateMoves(brd, length - 1);
+                int[] moves = moveBuffers.get(length - 1);
+                if (count == 0) {
+                    break;
+                }
+                int first = firstChild.get(node);
+                if (first < 0) {
+                    if (first == EXPANDING || (visits.get(node) <= 1 && node != root)
+                            || !firstChild.compareAndSet(node, NO_CHILDREN, EXPANDING)) {
+                        break; // Play out from this leaf
+                    }
+                    first = allocate(count);
+                    if (first < 0) {
+                        firstChild.set(node, NO_CHILDREN);
+                        break;
+                    }
+                    for (int n = first; n < first + count; n++) {
+                        clearNode(n);
+                    }
+                    childCount.set(node, count);
+                    firstChild.set(node, first); // Publishes the children
+                }
+
+                int choice = selectChild(node, first);
+                if (length == path.length) {
+                    path = java.util.Arrays.copyOf(path, length * 2);
+                    movers = java.util.Arrays.copyOf(movers, length * 2);
+                }
+                movers[length] = brd.getCurrentPlayer();
+                brd.applyTrustedMove(moves[choice]);
+                node = first + choice;
+                path[length++] = node;
+                int previousVisits = visits.getAndIncrement(node); // Virtual loss until backed up
+                value = brd.getValue();
+                if (previousVisits == 0) {
+                    break;
+                }
+            }
+
+            // Simulation
+            int played = 0;
+            while (Math.abs(value) < Board.WIN) {
+                int count = brd.getValidMoves(playoutMoves);
+                if (count > playoutMoves.length) {
+                    playoutMoves = new int[count];
+                    brd.getValidMoves(playoutMoves);
+                }
+                if (count == 0) {
+                    break;
+                }
+                brd.applyTrustedMove(playoutMoves[random.nextInt(count)]);
+                played++;
+                value = brd.getValue();
+            }
+            for (int i = 0; i < played + length - 1; i++) {
+                brd.undoMove();
+            }
+
+            // Backpropagation, crediting each node to the player who moved into
+            // it. Visits were already counted on the way down.
+            int result = value > 0 ? 2 : value < 0 ? 0 : 1; // Half points for player 1
+            for (int i = 1; i < length; i++) {
+                halfWins.addAndGet(path[i], movers[i] == Board.PLAYER_1 ? result : 2 - result);
+            }
+        }
+
+        // Pick the child of node maximizing UCB1, taking unvisited children first
+        private int selectChild(int node, int first) {
+            double logParent = Math.log(Math.max(1, visits.get(node)));
+            int best = 0;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int n = 0; n < childCount.get(node); n++) {
+                int childVisits = visits.get(first + n);
+                if (childVisits == 0) {
+                    return n;
+                }
+                double score = halfWins.get(first + n) / (2.0 * childVisits)
+                        + EXPLORATION * Math.sqrt(logParent / childVisits);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = n;
+                }
+            }
+            return best;
+        }
+
+        // Fill the move buffer for the given tree depth, returning the move count
+        int generateMoves(Board brd, int depth) {
+            while (moveBuffers.size() <= depth) {
+                moveBuffers.add(new int[0]);
+            }
+            int[] moves = moveBuffers.get(depth);
+            int count = brd.getValidMoves(moves);
+            if (count > moves.length) {
+                moves = new int[count];
+                moveBuffers.set(depth, moves);
+                brd.getValidMoves(moves);
+            }
+            return count;
+        }
+    }
+
+    // Playouts run by the last search, on all threads
+    public long getPlayouts() {
+        return completedPlayouts;
+    }
+
+    public double getPlayoutsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : completedPlayouts * 1e9 / elapsedNanos;
+    }
+
+    // Number of pool nodes in use, including any left from earlier searches
+    public int getNodesUsed() {
+        return nodeCount.get();
+    }
+
+    // Number of playouts through the current root, including reused ones
+    public int getRootVisits() {
+        return root < 0 ? 0 : visits.get(root);
+    }
+}
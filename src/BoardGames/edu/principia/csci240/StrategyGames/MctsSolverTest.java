@@ -0,0 +1,60 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import org.junit.jupiter.api.Test;
+
+import boardgames.edu.principia.csci240.strategygames.cluhanga.tictactoe.TTTBoard;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MctsSolverTest {
+    private static void play(Board board, String... moves) throws Exception {
+        for (String text : moves) {
+            Board.Move move = board.createMove();
+            move.fromString(text);
+            board.applyMove(move);
+        }
+    }
+
+    @Test
+    void testFindsImmediateWin() throws Exception {
+        TTTBoard board = new TTTBoard();
+        play(board, "1,1", "2,1", "1,2", "2,2");
+
+        AiSolver.mmResult result = new MctsSolver(1 << 16, 1).searchPlayouts(board, 5000);
+        assertEquals("1,3", result.currentMove.toString());
+        assertEquals(4, board.getMoveHistory().size(), "Search should leave the board unchanged");
+    }
+
+    @Test
+    void testReusesTreeAfterMoves() throws Exception {
+        TTTBoard board = new TTTBoard();
+        MctsSolver solver = new MctsSolver(1 << 16, 1);
+        solver.searchPlayouts(board, 5000);
+        play(board, "2,2", "1,1");
+
+        solver.searchPlayouts(board, 100);
+        assertTrue(solver.getRootVisits() > 100, "Playouts from the previous search should be kept");
+    }
+
+    @Test
+    void testStaysWithinPool() {
+        MctsSolver solver = new MctsSolver(100, 1);
+        AiSolver.mmResult result = solver.searchPlayouts(new TTTBoard(), 2000);
+        assertNotNull(result.currentMove);
+        assertTrue(solver.getNodesUsed() <= 100);
+    }
+
+    @Test
+    void testTreeParallelSearch() throws Exception {
+        TTTBoard board = new TTTBoard();
+        play(board, "1,1", "2,1", "1,2", "2,2");
+
+        MctsSolver solver = new MctsSolver(1 << 16, 1);
+        solver.setThreads(4);
+        AiSolver.mmResult result = solver.searchPlayouts(board, 8000);
+        assertEquals("1,3", result.currentMove.toString());
+        assertEquals(8000, solver.getPlayouts());
+        assertEquals(8000, solver.getRootVisits());
+        assertEquals(4, board.getMoveHistory().size(), "Search should leave the board unchanged");
+    }
+}
@@ -0,0 +1,20 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+// Decides the order in which AiSolver tries the moves of a node. The
+// transposition table's best move is always tried first; the remaining moves
+// are tried in decreasing order of score(). Moves are given in their int
+// encoding, as from Board.getValidMoves(int[]).
+public interface MoveOrdering {
+    // Prepare for a new search. Tables may be kept, aged or cleared.
+    public void newSearch();
+
+    // Return a score for trying move at the given ply (1 for the root's
+    // children). Moves with higher scores are searched first.
+    public int score(int move, int ply);
+
+    // Record that move caused a beta cutoff at ply with depth plies remaining.
+    public void cutoff(int move, int ply, int depth);
+
+    // Return an empty ordering of the same kind, for another search thread.
+    public MoveOrdering copy();
+}
@@ -0,0 +1,136 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Performance test ("perft") of a Board's move generation: count the
+// positions exactly depth moves below the current one, by walking every line
+// of play with getValidMoves, applyMove and undoMove. Lines stop where the
+// game is won, as getValue() reaching WIN or -WIN shows, so positions below a
+// win are not counted, as in chess perft; boards that go on generating moves
+// after a win, such as TTTBoard, give the same counts. The counts only depend on
+// the rules, so they catch regressions when board internals change, and the
+// rate at which they are found measures move generation throughput.
+//
+// The walk uses the int move path into per-ply buffers, so it allocates
+// nothing per node. At the last ply the moves are counted, not played.
+public class Perft {
+    private final int[][] buffers;
+
+    private Perft(int depth) {
+        buffers = new int[Math.max(1, depth)][0];
+    }
+
+    // Count the positions depth moves below brd's, which is left unchanged
+    public static long perft(Board brd, int depth) {
+        return new Perft(depth).count(brd, depth, 0);
+    }
+
+    // The perft count below each of brd's moves, in generated order
+    public static Map<Board.Move, Long> divide(Board brd, int depth) {
+        Map<Board.Move, Long> counts = new LinkedHashMap<>();
+        if (depth < 1) {
+            return counts;
+        }
+        Perft perft = new Perft(depth);
+        for (Board.Move move : brd.getValidMoves()) {
+            apply(brd, move);
+            counts.put(move, perft.count(brd, depth - 1, 1));
+            brd.undoMove();
+        }
+        return counts;
+    }
+
+    // Count as perft does, with the root moves divided among pool's threads,
+    // each on its own copy of brd
+    public static long parallel(Board brd, int depth, ForkJoinPool pool) {
+        if (depth < 2) {
+            return perft(brd, depth);
+        }
+        return pool.invoke(new RootTask(brd, depth));
+    }
+
+    private long count(Board brd, int depth, int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (Math.abs(brd.getValue()) >= Board.WIN) {
+            return 0;
+        }
+        int[] moves = buffers[ply];
+        int count = brd.getValidMoves(moves);
+        if (depth == 1) {
+            return count;
+        }
+        if (count > moves.length) {
+            moves = buffers[ply] = new int[count];
+            brd.getValidMoves(moves);
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            brd.applyTrustedMove(moves[i]);
+            nodes += count(brd, depth - 1, ply + 1);
+            brd.undoMove();
+        }
+        return nodes;
+    }
+
+    private static void apply(Board brd, Board.Move move) {
+        try {
+            brd.applyMove(move);
+        } catch (Board.InvalidMoveException e) {
+            throw new IllegalStateException("Generated move was rejected: " + move, e);
+        }
+    }
+
+    // Forks one task per root move and sums their counts
+    private static class RootTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+        private final Board brd;
+        private final int depth;
+
+        RootTask(Board brd, int depth) {
+            this.brd = brd;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            List<MoveTask> tasks = new ArrayList<>();
+            for (Board.Move move : brd.getValidMoves()) {
+                MoveTask task = new MoveTask(brd.copy(), move, depth - 1);
+                task.fork();
+                tasks.add(task);
+            }
+            long nodes = 0;
+            for (MoveTask task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    // Counts the positions below one root move, on a board of its own
+    private static class MoveTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+        private final Board brd;
+        private final Board.Move move;
+        private final int depth;
+
+        MoveTask(Board brd, Board.Move move, int depth) {
+            this.brd = brd;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            apply(brd, move);
+            return new Perft(depth + 1).count(brd, depth, 1);
+        }
+    }
+}
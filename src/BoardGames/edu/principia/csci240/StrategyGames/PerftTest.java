@@ -0,0 +1,48 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import org.junit.jupiter.api.Test;
+
+import boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard.BeehiveBoard;
+import boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard.BitBeehiveBoard;
+import boardgames.edu.principia.csci240.strategygames.cluhanga.tictactoe.TTTBoard;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerftTest {
+    @Test
+    void testTicTacToeCounts() {
+        // The published counts of tic-tac-toe move sequences of each length
+        // that do not play on past a win; at depth 9 they are the games that
+        // last all nine moves. TTTBoard offers moves after a win, so this also
+        // checks that perft stops there.
+        long[] expected = { 1, 9, 72, 504, 3024, 15120, 54720, 148176, 200448, 127872 };
+        for (int depth = 0; depth <= 9; depth++) {
+            assertEquals(expected[depth], Perft.perft(new TTTBoard(), depth), "Depth " + depth);
+        }
+    }
+
+    @Test
+    void testBeehiveBoardsAgree() {
+        assertEquals(121 * 120 * 119, Perft.perft(new BeehiveBoard(), 3));
+        assertEquals(121 * 120 * 119, Perft.perft(new BitBeehiveBoard(), 3));
+    }
+
+    @Test
+    void testDivideAndParallelMatchPerft() throws Exception {
+        Board board = new TTTBoard();
+        board.applyMove(board.decodeMove(4));
+        long total = Perft.perft(board, 5);
+
+        java.util.Map<Board.Move, Long> divided = Perft.divide(board, 5);
+        assertEquals(8, divided.size());
+        assertEquals(total, divided.values().stream().mapToLong(Long::longValue).sum());
+
+        java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(2);
+        try {
+            assertEquals(total, Perft.parallel(board, 5, pool));
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, board.getMoveHistory().size());
+    }
+}
@@ -0,0 +1,66 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Java Flight Recorder events emitted by AiSolver, so searches can be profiled
+// in production by starting a recording (for example with
+// -XX:StartFlightRecording or jcmd JFR.start) instead of attaching a debugger.
+// Events cost almost nothing while no recording is running.
+public class SearchEvents {
+
+    @Name("boardgames.SearchIteration")
+    @Label("Search Iteration")
+    @Category({ "Board Games", "AiSolver" })
+    @Description("One completed iteration of AiSolver's iterative-deepening search")
+    static class Iteration extends Event {
+        @Label("Depth")
+        int depth;
+
+        @Label("Nodes")
+        long nodes;
+
+        @Label("Value")
+        @Description("Value of the best move for player 1")
+        int value;
+
+        @Label("Best Move")
+        String bestMove;
+    }
+
+    @Name("boardgames.Search")
+    @Label("Search")
+    @Category({ "Board Games", "AiSolver" })
+    @Description("One complete AiSolver search")
+    static class Search extends Event {
+        @Label("Board")
+        String board;
+
+        @Label("Depth")
+        int depth;
+
+        @Label("Nodes")
+        long nodes;
+
+        @Label("Leaf Evaluations")
+        long leafEvaluations;
+
+        @Label("Cutoffs")
+        long cutoffs;
+
+        @Label("First-Move Cutoff Rate")
+        double firstMoveCutoffRate;
+
+        @Label("Table Hit Rate")
+        double tableHitRate;
+
+        @Label("Max Ply")
+        int maxPly;
+
+        @Label("Threads")
+        int threads;
+    }
+}
@@ -0,0 +1,159 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+// Counters describing one AiSolver search. AiSolver updates the fields
+// directly on its hot path; callers read them through the getters. After a
+// parallel search they cover every thread, while the per-iteration figures
+// describe the main thread.
+public class SearchStats {
+    long nodes; // Positions visited
+    long leafEvaluations; // Nodes scored by getValue without searching further
+    long cutoffs; // Nodes that failed high
+    long firstMoveCutoffs; // ... on the first move searched
+    long tableProbes;
+    long tableHits; // Probes that found an entry for the position
+    long expandedNodes; // Nodes whose moves were searched
+
+    // Expanded nodes that generated each stage of their moves; the last slot
+    // counts every later stage together
+    static final int MAX_STAGES = 4;
+    final long[] stageGenerations = new long[MAX_STAGES];
+    int maxPly; // Deepest ply visited below the root
+    long startNanos;
+    long elapsedNanos;
+
+    // Completed iterations of the iterative-deepening search
+    int iterations;
+    final long[] iterationNodes = new long[AiSolver.MAX_DEPTH + 1];
+    final long[] iterationNanos = new long[AiSolver.MAX_DEPTH + 1];
+
+    void reset() {
+        nodes = 0;
+        leafEvaluations = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        tableProbes = 0;
+        tableHits = 0;
+        expandedNodes = 0;
+        java.util.Arrays.fill(stageGenerations, 0);
+        maxPly = 0;
+        iterations = 0;
+        startNanos = System.nanoTime();
+        elapsedNanos = 0;
+    }
+
+    // Add the counters of a helper thread's search
+    void add(SearchStats other) {
+        nodes += other.nodes;
+        leafEvaluations += other.leafEvaluations;
+        cutoffs += other.cutoffs;
+        firstMoveCutoffs += other.firstMoveCutoffs;
+        tableProbes += other.tableProbes;
+        tableHits += other.tableHits;
+        expandedNodes += other.expandedNodes;
+        for (int stage = 0; stage < MAX_STAGES; stage++) {
+            stageGenerations[stage] += other.stageGenerations[stage];
+        }
+        maxPly = Math.max(maxPly, other.maxPly);
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getLeafEvaluations() {
+        return leafEvaluations;
+    }
+
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    // Fraction of cutoffs that happened on the first move searched; near 1
+    // when move ordering works well.
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0.0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    public long getTableProbes() {
+        return tableProbes;
+    }
+
+    // Fraction of transposition table probes that found their position, or 0
+    // if the search ran without a table
+    public double getTableHitRate() {
+        return tableProbes == 0 ? 0.0 : (double) tableHits / tableProbes;
+    }
+
+    public long getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    // Fraction of expanded nodes that generated the given stage of their
+    // moves. The rest were cut off by the hash move or an earlier stage.
+    public double getStageGenerationRate(int stage) {
+        if (expandedNodes == 0 || stage >= MAX_STAGES) {
+            return 0.0;
+        }
+        return (double) stageGenerations[stage] / expandedNodes;
+    }
+
+    public int getMaxPly() {
+        return maxPly;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : nodes * 1e9 / elapsedNanos;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    // Nodes searched by the iteration to the given depth (1 for the first)
+    public long getIterationNodes(int depth) {
+        return iterationNodes[depth];
+    }
+
+    public long getIterationNanos(int depth) {
+        return iterationNanos[depth];
+    }
+
+    // Ratio of the nodes of the last iteration to those of the one before,
+    // or 0 with fewer than two iterations
+    public double getEffectiveBranchingFactor() {
+        if (iterations < 2 || iterationNodes[iterations - 1] == 0) {
+            return 0.0;
+        }
+        return (double) iterationNodes[iterations] / iterationNodes[iterations - 1];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Nodes: %d (%.0f/sec), leaf evaluations: %d%n", nodes, getNodesPerSecond(),
+                leafEvaluations));
+        sb.append(String.format("Cutoffs: %d, %.1f%% on the first move%n", cutoffs,
+                100 * getFirstMoveCutoffRate()));
+        sb.append(String.format("Table probes: %d, %.1f%% hits%n", tableProbes, 100 * getTableHitRate()));
+        sb.append(String.format("Expanded nodes: %d, generating move stage", expandedNodes));
+        for (int stage = 0; stage < MAX_STAGES && stageGenerations[stage] > 0; stage++) {
+            sb.append(String.format(" %d: %.1f%%", stage, 100 * getStageGenerationRate(stage)));
+        }
+        sb.append(String.format("%n"));
+        sb.append(String.format("Max ply: %d, time: %d ms, effective branching factor: %.2f%n", maxPly,
+                elapsedNanos / 1_000_000, getEffectiveBranchingFactor()));
+        for (int depth = 1; depth <= iterations; depth++) {
+            sb.append(String.format("  depth %2d: %10d nodes %8.1f ms%n", depth, iterationNodes[depth],
+                    iterationNanos[depth] / 1e6));
+        }
+        return sb.toString();
+    }
+}
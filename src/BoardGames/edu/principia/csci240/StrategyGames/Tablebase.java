@@ -0,0 +1,11 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+// A precomputed table of perfect-play results for some or all positions of a
+// game. AiSolver, when given one, looks the root position up before searching
+// and returns the table's answer without searching at all.
+public interface Tablebase {
+    // Return the game-theoretic value of brd (WIN, -WIN or 0, from player 1's
+    // point of view) with a move that achieves it, or null if the table does
+    // not cover brd. The move is null if the game is over.
+    public AiSolver.mmResult probe(Board brd);
+}
@@ -0,0 +1,358 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Self-play matches between two AiSolver configurations, A and B, to measure
+// whether a change makes the engine stronger. Games are played in pairs from
+// the same opening, a few seeded random moves, with A moving first in one game
+// and B in the other, so neither side gains from the opening or the colour.
+// Each game runs on a board of its own with fresh solvers, one game per
+// thread.
+//
+// Results are taken in game order, whatever order the threads finish in, so
+// with depth-limited engines the same seed gives the same results on any
+// number of threads. Each result is written as a CSV row as soon as the games
+// before it are in, and added to a sequential probability ratio test (SPRT).
+// The match stops early once the test accepts either hypothesis: that A
+// scores as if elo1 Elo stronger than B, or only as if elo0 stronger.
+public class Tournament {
+    public static final String CSV_HEADER = "game,opening_seed,a_first,winner,a_score,moves,a_ms,b_ms,llr";
+
+    private static final int DEFAULT_OPENING_MOVES = 2;
+    private static final int DEFAULT_MAX_MOVES = 1000;
+
+    // One engine configuration, written as comma-separated key=value pairs:
+    // - depth=N: search to N plies (default 4), or
+    // - millis=N: search by iterative deepening for N ms per move instead
+    // - mode=pvs|alphabeta: the search mode (default pvs)
+    // - ordering=on|off: HeuristicOrdering, or generated order (default on)
+    // - tt=N: a transposition table of 2^N entries, or none for 0 (default 16)
+    public static class Engine {
+        int depth = 4;
+        long millis; // 0 to search to depth instead
+        AiSolver.SearchMode mode = AiSolver.SearchMode.PVS;
+        boolean ordering = true;
+        int tableBits = 16;
+
+        public static Engine parse(String spec) {
+            Engine engine = new Engine();
+            for (String setting : spec.split(",")) {
+                int equals = setting.indexOf('=');
+                if (equals < 0) {
+                    throw new IllegalArgumentException("Expected key=value, not " + setting);
+                }
+                String key = setting.substring(0, equals).trim().toLowerCase(Locale.ROOT);
+                String value = setting.substring(equals + 1).trim().toLowerCase(Locale.ROOT);
+                switch (key) {
+                    case "depth":
+                        engine.depth = Integer.parseInt(value);
+                        engine.millis = 0;
+                        break;
+                    case "millis":
+                        engine.millis = Long.parseLong(value);
+                        break;
+                    case "mode":
+                        engine.mode = value.equals("alphabeta") ? AiSolver.SearchMode.ALPHA_BETA
+                                : AiSolver.SearchMode.valueOf(value.toUpperCase(Locale.ROOT));
+                        break;
+                    case "ordering":
+                        engine.ordering = value.equals("on");
+                        break;
+                    case "tt":
+                        engine.tableBits = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown engine setting " + key);
+                }
+            }
+            if (engine.depth < 1 || engine.depth > AiSolver.MAX_DEPTH || engine.millis < 0
+                    || engine.tableBits < 0 || engine.tableBits > 30) {
+                throw new IllegalArgumentException("Engine setting out of range: " + spec);
+            }
+            return engine;
+        }
+
+        AiSolver newSolver() {
+            AiSolver solver = new AiSolver();
+            solver.setSearchMode(mode);
+            solver.setMoveOrdering(ordering ? new HeuristicOrdering() : null);
+            solver.setTranspositionTable(tableBits > 0 ? new TranspositionTable(tableBits) : null);
+            return solver;
+        }
+
+        AiSolver.mmResult choose(AiSolver solver, Board brd) {
+            return millis > 0 ? solver.searchForTime(brd, millis) : solver.searchToDepth(brd, depth);
+        }
+
+        @Override
+        public String toString() {
+            return (millis > 0 ? "millis=" + millis : "depth=" + depth) + ",mode="
+                    + mode.name().toLowerCase(Locale.ROOT).replace("_", "") + ",ordering="
+                    + (ordering ? "on" : "off") + ",tt=" + tableBits;
+        }
+    }
+
+    // A test of H0, that A's expected score is that of an elo0 Elo advantage,
+    // against H1, that it is that of elo1, with error rates alpha and beta. The
+    // log-likelihood ratio uses the normal approximation to the distribution
+    // of game scores, so draws count as half a win and need no separate model.
+    public static class Sprt {
+        public static final int CONTINUE = 0;
+        public static final int ACCEPT_H0 = -1;
+        public static final int ACCEPT_H1 = 1;
+
+        final double elo0;
+        final double elo1;
+        final double lower; // Accept H0 at or below
+        final double upper; // Accept H1 at or above
+
+        public Sprt(double elo0, double elo1, double alpha, double beta) {
+            this.elo0 = elo0;
+            this.elo1 = elo1;
+            lower = Math.log(beta / (1 - alpha));
+            upper = Math.log((1 - beta) / alpha);
+        }
+
+        // The log-likelihood ratio of H1 to H0 after the given results for A,
+        // or 0 before any game. The variance is estimated as if one more win
+        // and one more loss had been played, so that a clean sweep or a run of
+        // draws, whose scores have no variance, still decides the test.
+        public double llr(long wins, long draws, long losses) {
+            long games = wins + draws + losses;
+            if (games == 0) {
+                return 0.0;
+            }
+            double mean = (wins + 0.5 * draws) / games;
+            double variance = ((wins + 1) * (1 - mean) * (1 - mean) + draws * (0.5 - mean) * (0.5 - mean)
+                    + (losses + 1) * mean * mean) / (games + 2);
+            double s0 = expectedScore(elo0);
+            double s1 = expectedScore(elo1);
+            return games * (s1 - s0) * (2 * mean - s0 - s1) / (2 * variance);
+        }
+
+        // The expected score of a player elo Elo stronger than its opponent
+        static double expectedScore(double elo) {
+            return 1 / (1 + Math.pow(10, -elo / 400));
+        }
+
+        // ACCEPT_H0, ACCEPT_H1 or CONTINUE for the given ratio
+        public int decide(double llr) {
+            return llr >= upper ? ACCEPT_H1 : llr <= lower ? ACCEPT_H0 : CONTINUE;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "SPRT elo0=%.1f elo1=%.1f bounds (%.2f, %.2f)", elo0, elo1, lower,
+                    upper);
+        }
+    }
+
+    // The outcome of one game
+    static class Game {
+        int index;
+        long openingSeed;
+        boolean aFirst;
+        int aPlayer; // The player A moves for
+        int winner; // Board.PLAYER_1, PLAYER_2, or 0 for a draw
+        int moves; // Including the opening
+        long aNanos;
+        long bNanos;
+
+        // A's score: 1 for a win, 0.5 for a draw, 0 for a loss
+        double aScore() {
+            return winner == 0 ? 0.5 : winner == aPlayer ? 1.0 : 0.0;
+        }
+    }
+
+    private final Board prototype;
+    private final Engine a;
+    private final Engine b;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int openingMoves = DEFAULT_OPENING_MOVES;
+    private int maxMoves = DEFAULT_MAX_MOVES;
+    private Sprt sprt = new Sprt(0, 50, 0.05, 0.05);
+
+    private long wins;
+    private long draws;
+    private long losses;
+    private double llr;
+    private int decision;
+
+    // A match between a and b on boards of prototype's class
+    public Tournament(Board prototype, Engine a, Engine b) {
+        this.prototype = prototype;
+        this.a = a;
+        this.b = b;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    // Random moves played before the engines take over
+    public void setOpeningMoves(int openingMoves) {
+        this.openingMoves = openingMoves;
+    }
+
+    // Moves after which an unfinished game is scored as a draw
+    public void setMaxMoves(int maxMoves) {
+        this.maxMoves = maxMoves;
+    }
+
+    // Stop early by the given test, or play every game if null
+    public void setSprt(Sprt sprt) {
+        this.sprt = sprt;
+    }
+
+    // Play up to games games, pair k from opening seed seed + k, writing a CSV
+    // row to csv for each if it is not null. Returns the number played, which
+    // is less than games if the SPRT stopped the match.
+    public int run(int games, long seed, Writer csv) throws IOException, InterruptedException {
+        wins = draws = losses = 0;
+        llr = 0.0;
+        decision = Sprt.CONTINUE;
+        if (csv != null) {
+            csv.write(CSV_HEADER + "\n");
+            csv.flush();
+        }
+
+        // Keep a few games per thread queued, so threads never wait for the
+        // results to be taken in order, without queueing the whole match
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<Game>> pending = new ArrayDeque<>();
+        int submitted = 0;
+        int played = 0;
+        try {
+            while (played < games && decision == Sprt.CONTINUE) {
+                while (submitted < games && pending.size() < 2 * threads) {
+                    int index = submitted++;
+                    pending.add(pool.submit(() -> play(index, seed + index / 2, stop)));
+                }
+                Game game = pending.remove().get();
+                played++;
+                record(game);
+                if (csv != null) {
+                    csv.write(String.format(Locale.ROOT, "%d,%d,%b,%d,%.1f,%d,%d,%d,%.4f\n", game.index,
+                            game.openingSeed, game.aFirst, game.winner, game.aScore(), game.moves,
+                            game.aNanos / 1_000_000, game.bNanos / 1_000_000, llr));
+                    csv.flush();
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Game failed: " + e.getCause(), e.getCause());
+        } finally {
+            stop.set(true);
+            pool.shutdownNow();
+        }
+        return played;
+    }
+
+    private void record(Game game) {
+        double score = game.aScore();
+        if (score == 1.0) {
+            wins++;
+        } else if (score == 0.0) {
+            losses++;
+        } else {
+            draws++;
+        }
+        if (sprt != null) {
+            llr = sprt.llr(wins, draws, losses);
+            decision = sprt.decide(llr);
+        }
+    }
+
+    // Play game index from the given opening. A game still running when the
+    // match stops is abandoned, and its result never read.
+    Game play(int index, long openingSeed, AtomicBoolean stop) throws Board.InvalidMoveException {
+        Game game = new Game();
+        game.index = index;
+        game.openingSeed = openingSeed;
+        game.aFirst = index % 2 == 0;
+        game.aPlayer = game.aFirst ? prototype.getCurrentPlayer() : -prototype.getCurrentPlayer();
+        Board board = prototype.copy();
+        int start = board.getMoveHistory().size();
+
+        Random rnd = new Random(openingSeed);
+        int[] moves = new int[0];
+        for (int i = 0; i < openingMoves && !isOver(board); i++) {
+            int count = board.getValidMoves(moves);
+            if (count > moves.length) {
+                moves = new int[count];
+                board.getValidMoves(moves);
+            }
+            board.applyTrustedMove(moves[rnd.nextInt(count)]);
+        }
+
+        AiSolver aSolver = a.newSolver();
+        AiSolver bSolver = b.newSolver();
+        int played = board.getMoveHistory().size() - start;
+        while (played < maxMoves && !isOver(board) && !stop.get()) {
+            boolean aToMove = board.getCurrentPlayer() == game.aPlayer;
+            long before = System.nanoTime();
+            AiSolver.mmResult best = aToMove ? a.choose(aSolver, board) : b.choose(bSolver, board);
+            if (aToMove) {
+                game.aNanos += System.nanoTime() - before;
+            } else {
+                game.bNanos += System.nanoTime() - before;
+            }
+            if (best.currentMove == null) {
+                break;
+            }
+            board.applyMove(best.currentMove);
+            played++;
+        }
+        int value = board.getValue();
+        game.winner = value >= Board.WIN ? Board.PLAYER_1 : value <= -Board.WIN ? Board.PLAYER_2 : 0;
+        game.moves = played;
+        return game;
+    }
+
+    private static boolean isOver(Board board) {
+        return Math.abs(board.getValue()) >= Board.WIN || board.getValidMoves(new int[0]) == 0;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    // The log-likelihood ratio after the games played so far
+    public double getLlr() {
+        return llr;
+    }
+
+    // Sprt.ACCEPT_H0, ACCEPT_H1 or CONTINUE after the games played so far
+    public int getDecision() {
+        return decision;
+    }
+
+    public Sprt getSprt() {
+        return sprt;
+    }
+
+    // A's Elo advantage implied by its score so far, infinite after a clean
+    // sweep either way
+    public double getEloDifference() {
+        long games = wins + draws + losses;
+        double score = games == 0 ? 0.5 : (wins + 0.5 * draws) / games;
+        return -400 * Math.log10(1 / score - 1);
+    }
+}
@@ -0,0 +1,68 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import org.junit.jupiter.api.Test;
+
+import boardgames.edu.principia.csci240.strategygames.cluhanga.tictactoe.TTTBoard;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+    @Test
+    void testEngineSpecsRoundTrip() {
+        Tournament.Engine engine = Tournament.Engine.parse("depth=6, mode=alphabeta,ordering=off,tt=0");
+        assertEquals("depth=6,mode=alphabeta,ordering=off,tt=0", engine.toString());
+        assertEquals(engine.toString(), Tournament.Engine.parse(engine.toString()).toString());
+        assertEquals("millis=20,mode=pvs,ordering=on,tt=16", Tournament.Engine.parse("millis=20").toString());
+        assertThrows(IllegalArgumentException.class, () -> Tournament.Engine.parse("depth"));
+        assertThrows(IllegalArgumentException.class, () -> Tournament.Engine.parse("eval=fast"));
+        assertThrows(IllegalArgumentException.class, () -> Tournament.Engine.parse("depth=0"));
+    }
+
+    @Test
+    void testSprtLikelihoodRatio() {
+        Tournament.Sprt sprt = new Tournament.Sprt(0, 50, 0.05, 0.05);
+        assertEquals(0.0, sprt.llr(0, 0, 0));
+        assertEquals(Tournament.Sprt.ACCEPT_H1, sprt.decide(sprt.llr(20, 0, 0)), "A sweep has no variance");
+        assertEquals(Tournament.Sprt.ACCEPT_H0, sprt.decide(sprt.llr(0, 100, 0)), "Nor do all draws");
+        assertEquals(Tournament.Sprt.ACCEPT_H0, sprt.decide(sprt.llr(0, 0, 20)));
+        assertEquals(Tournament.Sprt.CONTINUE, sprt.decide(sprt.llr(2, 0, 0)));
+        assertTrue(sprt.llr(10, 0, 10) < 0, "An even score favours H0");
+        assertTrue(sprt.llr(60, 20, 20) > sprt.llr(40, 20, 40));
+        assertEquals(Tournament.Sprt.ACCEPT_H1, sprt.decide(sprt.llr(60, 20, 20)));
+        assertEquals(Tournament.Sprt.ACCEPT_H0, sprt.decide(sprt.llr(20, 20, 60)));
+        assertEquals(Tournament.Sprt.CONTINUE, sprt.decide(sprt.llr(3, 2, 2)));
+    }
+
+    @Test
+    void testStrongerEngineIsFoundAndResultsDoNotDependOnThreads() throws Exception {
+        // A full-depth tic-tac-toe search never loses from any first move; a
+        // 1-ply one blunders. Longer random openings may already be lost.
+        Tournament.Engine perfect = Tournament.Engine.parse("depth=9");
+        Tournament.Engine shallow = Tournament.Engine.parse("depth=1");
+
+        StringWriter serial = new StringWriter();
+        Tournament match = new Tournament(new TTTBoard(), perfect, shallow);
+        match.setOpeningMoves(1);
+        match.setThreads(1);
+        int played = match.run(400, 7, serial);
+        assertTrue(played < 400, "SPRT should stop the match early");
+        assertEquals(Tournament.Sprt.ACCEPT_H1, match.getDecision());
+        assertEquals(0, match.getLosses());
+        assertEquals(played, match.getWins() + match.getDraws());
+        String[] rows = serial.toString().split("\n");
+        assertEquals(Tournament.CSV_HEADER, rows[0]);
+        assertEquals(played + 1, rows.length);
+
+        StringWriter parallel = new StringWriter();
+        match.setThreads(3);
+        assertEquals(played, match.run(400, 7, parallel));
+        assertEquals(stripTimes(serial.toString()), stripTimes(parallel.toString()));
+    }
+
+    // The CSV without its a_ms and b_ms columns
+    private static String stripTimes(String csv) {
+        return csv.replaceAll("(?m),\\d+,\\d+,([^,]*)$", ",$1");
+    }
+}
@@ -0,0 +1,96 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+// Fixed-size hash table of search results keyed by Board.getHash().
+//
+// Each slot holds one packed long of data: the value, the bound type, the
+// search depth and the best move's int encoding (see Board.encodeMove). A slot
+// is only overwritten by a search at least as deep, or by any search once the
+// entry is left over from an earlier call (replace-by-depth with aging).
+//
+// The key is stored XORed with the data, so a probe that reads a key and data
+// written by two different stores fails the check instead of returning a
+// corrupt entry. This keeps the table safe to share between search threads
+// without locking.
+public class TranspositionTable {
+    public static final int EXACT = 0;
+    public static final int LOWER_BOUND = 1; // Value is at least this (fail high)
+    public static final int UPPER_BOUND = 2; // Value is at most this (fail low)
+
+    public static final long MISS = 0L;
+    public static final int NO_MOVE = -1;
+    public static final int FULL_DEPTH = 255; // Searched to the end of the game
+
+    private static final long VALID = 1L << 63;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private int generation;
+
+    // Create a table holding 2^sizeLog2 entries, 16 bytes each
+    public TranspositionTable(int sizeLog2) {
+        keys = new long[1 << sizeLog2];
+        data = new long[1 << sizeLog2];
+        mask = (1 << sizeLog2) - 1;
+    }
+
+    // Start a new search. Entries from earlier searches become replaceable.
+    public void newSearch() {
+        generation = (generation + 1) & 0x1F;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(keys, 0L);
+        java.util.Arrays.fill(data, 0L);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    // Return the packed entry for hash, or MISS
+    public long probe(long hash) {
+        int slot = (int) hash & mask;
+        long entry = data[slot];
+        if (entry == MISS || (keys[slot] ^ entry) != hash) {
+            return MISS;
+        }
+        return entry;
+    }
+
+    public void store(long hash, int depth, int bound, int value, int move) {
+        int slot = (int) hash & mask;
+        long old = data[slot];
+        if (old != MISS && generationOf(old) == generation && depthOf(old) > depth) {
+            return;
+        }
+        long entry = VALID
+                | ((long) generation << 58)
+                | ((long) bound << 56)
+                | ((long) Math.min(depth, FULL_DEPTH) << 48)
+                | ((long) ((move + 1) & 0xFFFF) << 32)
+                | (value & 0xFFFFFFFFL);
+        keys[slot] = hash ^ entry;
+        data[slot] = entry;
+    }
+
+    public static int valueOf(long entry) {
+        return (int) entry;
+    }
+
+    public static int moveOf(long entry) {
+        return (int) ((entry >>> 32) & 0xFFFF) - 1;
+    }
+
+    public static int depthOf(long entry) {
+        return (int) ((entry >>> 48) & 0xFF);
+    }
+
+    public static int boundOf(long entry) {
+        return (int) ((entry >>> 56) & 0x3);
+    }
+
+    private static int generationOf(long entry) {
+        return (int) ((entry >>> 58) & 0x1F);
+    }
+}
@@ -0,0 +1,28 @@
+package boardgames.edu.principia.csci240.strategygames;
+
+import java.util.Random;
+
+// Random keys for Zobrist hashing of board positions. A board XORs the key for
+// (cell, player) into its hash when a stone is placed on or removed from that
+// cell, and XORs SIDE_TO_MOVE whenever the turn passes, so that
+// applyMove/undoMove can update the hash in constant time.
+public class Zobrist {
+    public static final long SIDE_TO_MOVE = 0x9E3779B97F4A7C15L;
+
+    // Return keys[cell][0] for PLAYER_1 and keys[cell][1] for PLAYER_2. The seed
+    // is fixed so hashes are stable from run to run.
+    public static long[][] keys(int cellCount, long seed) {
+        Random rnd = new Random(seed);
+        long[][] keys = new long[cellCount][2];
+        for (int cell = 0; cell < cellCount; cell++) {
+            keys[cell][0] = rnd.nextLong();
+            keys[cell][1] = rnd.nextLong();
+        }
+        return keys;
+    }
+
+    // Index into a keys row for the given player
+    public static int side(int player) {
+        return player == Board.PLAYER_1 ? 0 : 1;
+    }
+}
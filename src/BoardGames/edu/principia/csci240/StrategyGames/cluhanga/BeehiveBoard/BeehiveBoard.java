@@ -4,70 +4,76 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import boardgames.edu.principia.csci240.strategygames.Board;
 import boardgames.edu.principia.csci240.strategygames.Board.InvalidMoveException;
 import boardgames.edu.principia.csci240.strategygames.Board.Move;
+import boardgames.edu.principia.csci240.strategygames.Zobrist;
 
 /**
  * BeehiveBoard Class Development Guide with Integrated Components
  * 
  * Overview:
  * BeehiveBoard acts as the central hub for the Beehive game logic, interfacing
- * directly with game-specific classes such as Cell, Location, Connections, and
- * BridgeGroup to manage the game state, enforce rules, and evaluate win
+ * directly with game-specific classes such as Location, Connections, and
+ * RollbackUnionFind to manage the game state, enforce rules, and evaluate win
  * conditions on an 11x11 hexagonal grid.
  * 
  * Requirements:
  * - Manage the board's cell states and their interconnections to facilitate
  * game play, ensuring compliance with the game's rules including piece
  * placement and the swap rule.
- * - Utilize the Cell, Location, Connections, and BridgeGroup classes to
+ * - Utilize the Location, Connections, and RollbackUnionFind classes to
  * represent and manipulate the game board's state efficiently.
  * - Implement game logic to check win conditions based on the connectivity of
  * cells across the board.
  * 
  * Member Variables:
- * - cells: A 2D array of Cell objects representing the hexagonal grid of the
- * game board.
+ * - cells: The state of each cell of the hexagonal grid: 0 when empty, or the
+ * player whose stone is on it. It is indexed by the packed cell
+ * index row * BOARD_SIZE + col that Connections and the union-finds also use.
+ * All of the board's state is kept in flat arrays like this, so that copy()
+ * is a handful of array copies.
  * - currentPlayer: Tracks which player's turn it is, alternating between two
  * players.
  * - connections: An instance of the Connections class to manage adjacency
  * relationships between cells.
- * - bridgeGroups: A list of BridgeGroup objects, each representing a set of
- * connected cells.
+ * - adjacency: A RollbackUnionFind over the cells and four virtual nodes, one
+ * per side of the board, joining each stone to its same-coloured neighbours and
+ * to its player's sides. A player has won when their two sides are joined.
+ * - bridgeGroups: A RollbackUnionFind joining each stone to its same-coloured
+ * neighbours and to the stones a bridge away, used for evaluation.
  * 
  * Constructor:
- * - Initializes the cells array with empty Cell objects, sets the starting
- * player, and prepares the Connections and BridgeGroup instances.
+ * - Initializes the cells array to empty, sets the starting player, and
+ * prepares the Connections and union-find instances.
  * 
  * Key Methods:
  * - applyMove(Move move): Applies a move to the board by updating the relevant
- * Cell state and adjusting the Connections and BridgeGroups accordingly.
- * - isValidMove(Move move): Determines if a proposed move is valid by checking
- * the target Cell's state and compliance with game rules.
- * - checkWin(): Utilizes the BridgeGroup objects to determine if a player has
+ * cell state and joining the new stone's groups in both union-finds.
+ * - isValidMove(int move): Determines if a proposed move is valid by checking
+ * the target cell's state and compliance with game rules.
+ * - getValue(): Compares the virtual side nodes to determine if a player has
  * successfully formed a connecting path across the board.
  * - getValidMoves(): Generates and returns a list of all legal moves for the
  * current player, based on the current state of the board and the game's rules.
  * - getCurrentPlayer(): Returns an identifier for the current player.
  * - undoMove(): Reverses the last move made, leveraging the move history to
- * restore the board's previous state.
+ * restore the board's previous state and rolling both union-finds back to
+ * their state before the move.
  * - toString(): Provides a visual representation of the board's current state,
  * useful for debugging or displaying the game in a text-based interface.
  * 
- * Integration with Cell, Location, Connections, and BridgeGroup:
- * - The BeehiveBoard will create and manage Cell objects for each position on
- * the board, using Location objects to track their positions.
+ * Integration with Location, Connections, and RollbackUnionFind:
+ * - The BeehiveBoard keeps each cell's state in the cells array, and uses
+ * Location objects to name positions in its public methods.
  * - The Connections class is used to maintain a record of which cells are
  * adjacent to each other, facilitating the game logic related to piece
  * placement and connectivity.
- * - BridgeGroups are dynamically managed to keep track of connected components
- * on the board, essential for evaluating win conditions and strategic planning.
+ * - The union-finds keep track of connected components on the board, essential
+ * for evaluating win conditions and strategic planning. Each move only adds
+ * unions, so undoing one just rolls them back.
  * 
  * Additional Considerations:
  * - Consider how the swap rule affects the initialization and application of
@@ -132,6 +138,23 @@ public class BeehiveBoard implements Board {
             }
         }
 
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof BeeHiveMove)) {
+                return false;
+            }
+            BeeHiveMove other = (BeeHiveMove) obj;
+            return row == other.row && col == other.col;
+        }
+
+        @Override
+        public int hashCode() {
+            return row * BOARD_SIZE + col;
+        }
+
         public boolean isSwap() {
             return this.row == -1 && this.col == -1;
         }
@@ -142,27 +165,109 @@ public class BeehiveBoard implements Board {
         }
     }
 
+    // A move shared by every board, which cannot be changed, so that no caller
+    // can rewrite the moves other boards hand out or keep in their histories
+    private static final class SharedMove extends BeeHiveMove {
+        private static final long serialVersionUID = 1L;
+
+        SharedMove(int row, int col) {
+            super(row, col);
+        }
+
+        @Override
+        public void read(InputStream is) {
+            throw new UnsupportedOperationException("Shared moves cannot be changed; use createMove()");
+        }
+
+        @Override
+        public void fromString(String s) {
+            throw new UnsupportedOperationException("Shared moves cannot be changed; use createMove()");
+        }
+    }
+
     private static final int BOARD_SIZE = 11;
-    private Cell[][] board = new Cell[BOARD_SIZE][BOARD_SIZE];
-    private int currentPlayer;
-    private List<Move> moveHistory = new ArrayList<>();
-    private Connections connections;
-    private int currentWinner;
-    private List<BridgeGroup> groups;
+    private static final int CELLS = BOARD_SIZE * BOARD_SIZE;
 
-    public BeehiveBoard() {
-        // Initialize the board and set the starting player
-        Connections connections = new Connections();
-        groups = new ArrayList<>();
-        this.connections = new Connections();
+    // Virtual union-find nodes for the sides of the board. Player 1 joins TOP to
+    // BOTTOM and player 2 joins LEFT to RIGHT.
+    private static final int TOP = CELLS;
+    private static final int BOTTOM = CELLS + 1;
+    private static final int LEFT = CELLS + 2;
+    private static final int RIGHT = CELLS + 3;
+
+    // The int encoding of the swap move; other moves are encoded as their cell
+    static final int SWAP = CELLS;
+
+    private final int[] cells; // Indexed by row * BOARD_SIZE + col
+    private int currentPlayer;
+    private final List<Move> moveHistory;
+    private final Connections connections;
+    private final RollbackUnionFind adjacency;
+    private final RollbackUnionFind bridgeGroups;
+    private long hash;
+
+    // getValue's evaluation, kept up to date by applyMove and undoMove: the
+    // winner, or 0, and the score from player 1's point of view. The score
+    // before each stone was placed is kept for undoMove.
+    private int winner;
+    private int score;
+    private final int[] scoreHistory;
+    private int stoneCount;
+
+    // For each cell, the number of stones next to it or a bridge away, for
+    // generating the moves near existing groups first
+    private final int[] contacts;
+    private static final long[][] ZOBRIST = Zobrist.keys(BOARD_SIZE * BOARD_SIZE, 0xBEE5L);
+
+    // Unchangeable moves shared by every BeehiveBoard and BitBeehiveBoard,
+    // handed out by getValidMoves and kept in the history, so that generating
+    // moves allocates nothing and later changes to a caller's own Move cannot
+    // rewrite the history
+    static final BeeHiveMove SWAP_MOVE = new SharedMove(-1, -1);
+    static final BeeHiveMove[] CELL_MOVES = new BeeHiveMove[BOARD_SIZE * BOARD_SIZE];
+    static {
         for (int i = 0; i < BOARD_SIZE; i++) {
             for (int j = 0; j < BOARD_SIZE; j++) {
-                board[i][j] = new Cell();
+                CELL_MOVES[i * BOARD_SIZE + j] = new SharedMove(i, j);
             }
         }
+    }
+
+    public BeehiveBoard() {
+        // Initialize the board and set the starting player
+        this.connections = Connections.forSize(BOARD_SIZE);
+        cells = new int[CELLS];
+        moveHistory = new ArrayList<>();
+        adjacency = new RollbackUnionFind(CELLS + 4);
+        bridgeGroups = new RollbackUnionFind(CELLS);
+        scoreHistory = new int[CELLS];
+        contacts = new int[CELLS];
         currentPlayer = 1; // or 0, depending on how you define players
     }
 
+    // Copy other's state. The moves in the history are the shared CELL_MOVES
+    // and SWAP_MOVE, which cannot be changed, so the list is copied but not
+    // its moves.
+    private BeehiveBoard(BeehiveBoard other) {
+        connections = other.connections;
+        cells = other.cells.clone();
+        moveHistory = new ArrayList<>(other.moveHistory);
+        adjacency = new RollbackUnionFind(other.adjacency);
+        bridgeGroups = new RollbackUnionFind(other.bridgeGroups);
+        scoreHistory = other.scoreHistory.clone();
+        contacts = other.contacts.clone();
+        currentPlayer = other.currentPlayer;
+        hash = other.hash;
+        winner = other.winner;
+        score = other.score;
+        stoneCount = other.stoneCount;
+    }
+
+    @Override
+    public BeehiveBoard copy() {
+        return new BeehiveBoard(this);
+    }
+
     @Override
     public Move createMove() {
         return new BeeHiveMove();
@@ -170,58 +275,95 @@ public class BeehiveBoard implements Board {
 
     @Override
     public void applyMove(Move m) throws Board.InvalidMoveException {
-        BeeHiveMove move = (BeeHiveMove) m;
+        applyMove(encodeMove(m));
+    }
+
+    // Moves are encoded as their cell, row * BOARD_SIZE + col, or SWAP
+    @Override
+    public void applyMove(int move) throws Board.InvalidMoveException {
+        if (winner != 0) {
+            throw new Board.InvalidMoveException("The game is over");
+        }
         if (!isValidMove(move)) {
             throw new Board.InvalidMoveException("Invalid move");
         }
-        if (move.isSwap()) {
+        place(move);
+    }
+
+    @Override
+    public void applyTrustedMove(int move) {
+        assert winner == 0 && isValidMove(move) : "Invalid trusted move " + move;
+        place(move);
+    }
+
+    // Make a valid move, unchecked
+    private void place(int move) {
+        if (move == SWAP) {
             currentPlayer = -currentPlayer;
         } else {
-            board[move.row][move.col].setState(currentPlayer);
-            Location location = new Location(move.row, move.col);
-            updateGroups(location, currentPlayer);
+            cells[move] = currentPlayer;
+            hash ^= ZOBRIST[move][Zobrist.side(currentPlayer)];
+            addContacts(move, 1);
+            updateGroups(move / BOARD_SIZE, move % BOARD_SIZE, currentPlayer);
             currentPlayer = -currentPlayer;
         }
-        moveHistory.add(move);
+        hash ^= Zobrist.SIDE_TO_MOVE;
+        moveHistory.add(decodeMove(move));
     }
 
-    private void updateGroups(Location location, int player) {
-        List<BridgeGroup> adjacentGroups = new ArrayList<>();
-        for (BridgeGroup group : groups) {
-            if (group.getPlayer() == player) {
-                for (Location cell : group.getCells()) {
-                    if (connections.isAdjacent(location, cell) || connections.isBridge(location, cell)) {
-                        adjacentGroups.add(group);
-                        break;
-                    }
-                }
+    // Join the stone just placed at (row, col) to its neighbours and sides in
+    // adjacency, and to its neighbours and bridge partners in bridgeGroups,
+    // after a checkpoint so that undoMove can roll the unions back. The score
+    // and winner are brought up to date along the way.
+    private void updateGroups(int row, int col, int player) {
+        int cell = row * BOARD_SIZE + col;
+        adjacency.checkpoint();
+        bridgeGroups.checkpoint();
+        scoreHistory[stoneCount++] = score;
+        // By computeValue's terms, the stone scores 1 for itself and adds 1 to
+        // its group's size; merging groups leaves the total of their sizes
+        // unchanged. Linking stones gains more, as joinBridgeGroups counts.
+        int gained = 1 + 1;
+        for (int other : connections.neighbours(cell)) {
+            if (cells[other] == player) {
+                adjacency.union(cell, other);
+                gained += joinBridgeGroups(cell, other);
+            }
+        }
+        for (int other : connections.bridges(cell)) {
+            if (cells[other] == player) {
+                gained += joinBridgeGroups(cell, other);
             }
         }
 
-        if (adjacentGroups.isEmpty()) {
-            // No existing group found; create a new group for this move
-            BridgeGroup newGroup = new BridgeGroup(this);
-            newGroup.add(location);
-            newGroup.setPlayer(player);
-            groups.add(newGroup);
+        if (player == 1) {
+            if (row == 0) {
+                adjacency.union(cell, TOP);
+            }
+            if (row == BOARD_SIZE - 1) {
+                adjacency.union(cell, BOTTOM);
+            }
         } else {
-            // Add this cell to the first adjacent group
-            BridgeGroup firstGroup = adjacentGroups.get(0);
-            firstGroup.add(location);
-
-            // Merge all adjacent groups into the first group
-            for (int i = 1; i < adjacentGroups.size(); i++) {
-                BridgeGroup group = adjacentGroups.get(i);
-                firstGroup.merge(group);
-                groups.remove(group);
+            if (col == 0) {
+                adjacency.union(cell, LEFT);
+            }
+            if (col == BOARD_SIZE - 1) {
+                adjacency.union(cell, RIGHT);
             }
         }
+        score += player * gained;
+        winner = findWinner();
     }
 
-    private boolean isAdjacentOrBridged(Location location1, Location location2) {
-        int rowDiff = Math.abs(location1.getRow() - location2.getRow());
-        int colDiff = Math.abs(location1.getCol() - location2.getCol());
-        return (rowDiff <= 1 && colDiff <= 1) || (rowDiff <= 2 && colDiff <= 2);
+    // Union the bridge groups of cell and other, returning the points gained:
+    // 2 for each side that was a lone stone, and so becomes part of a bridge
+    private int joinBridgeGroups(int cell, int other) {
+        int cellSize = bridgeGroups.size(cell);
+        int otherSize = bridgeGroups.size(other);
+        if (!bridgeGroups.union(cell, other)) {
+            return 0;
+        }
+        return (cellSize == 1 ? 2 : 0) + (otherSize == 1 ? 2 : 0);
     }
 
     @Override
@@ -275,24 +417,37 @@ public class BeehiveBoard implements Board {
         // Positive values indicate an advantage for Player 1, negative for Player 2,
         // and zero for an even state.
 
+        // A player whose sides are joined has won
+        int value = winner != 0 ? winner * WIN : score;
+        assert value == computeValue() : "Incremental value " + value + " != " + computeValue();
+        return value;
+    }
+
+    // Evaluate the board from scratch, as getValue's value is kept
+    // incrementally. Only assertions call this, to check the two agree.
+    int computeValue() {
+        int winner = findWinner();
+        if (winner != 0) {
+            return winner * WIN;
+        }
+
         int player1Score = 0;
         int player2Score = 0;
 
         // Evaluate each cell on the board for its contribution to the player's score
         for (int row = 0; row < BOARD_SIZE; row++) {
             for (int col = 0; col < BOARD_SIZE; col++) {
-                Cell cell = board[row][col];
-                if (cell.getState() == 1) { // Player 1 occupies the cell
+                int state = cells[row * BOARD_SIZE + col];
+                if (state == 1) { // Player 1 occupies the cell
                     player1Score += 1; // Assign a base score for occupation
                     // Further evaluate the cell's strategic importance
-                    // For example, proximity to forming a bridge might increase its value
-                    if (isPartOfBridge(cell)) {
+                    if (isPartOfBridge(row, col)) {
                         player1Score += 2; // Increment score for strategic positioning
                     }
-                } else if (cell.getState() == -1) { // Player 2 occupies the cell
+                } else if (state == -1) { // Player 2 occupies the cell
                     player2Score += 1; // Assign a base score for occupation
                     // Evaluate the cell's strategic importance
-                    if (isPartOfBridge(cell)) {
+                    if (isPartOfBridge(row, col)) {
                         player2Score += 2; // Increment score for strategic positioning
                     }
                 }
@@ -300,13 +455,14 @@ public class BeehiveBoard implements Board {
         }
 
         // Evaluate the impact of bridge groups
-        for (BridgeGroup group : groups) {
-            if (group.getPlayer() == 1) {
-                // For Player 1, increase the score based on the group size or strategic value
-                player1Score += group.getCells().length; // Example: score increases with group size
-            } else if (group.getPlayer() == -1) {
-                // For Player 2, similarly increase the score
-                player2Score += group.getCells().length;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (cells[cell] != 0 && bridgeGroups.find(cell) == cell) {
+                // Each group's score increases with its size
+                if (cells[cell] == 1) {
+                    player1Score += bridgeGroups.size(cell);
+                } else {
+                    player2Score += bridgeGroups.size(cell);
+                }
             }
         }
 
@@ -315,26 +471,26 @@ public class BeehiveBoard implements Board {
         return player1Score - player2Score;
     }
 
-    /**
-     * Checks if a given cell is part of any bridge group, indicating strategic
-     * importance.
-     * This is a simplified stand-in for potentially more complex
-     * bridge-participation checks.
-     * 
-     * @param cell The cell to check.
-     * @return True if the cell is part of a bridge, false otherwise.
-     */
-    private boolean isPartOfBridge(Cell cell) {
-        for (BridgeGroup group : groups) {
-            if (Arrays.asList(group.getCells()).contains(cell.getLocation())) {
-                return true; // The cell is part of a bridge group
-            }
-        }
-        return false; // The cell is not part of any bridge group
+    // Whether the stone at (row, col) is linked to another of its owner's
+    // stones, next to it or a bridge away, directly or through others
+    private boolean isPartOfBridge(int row, int col) {
+        return bridgeGroups.size(row * BOARD_SIZE + col) > 1;
     }
 
+    // Return the player who has joined their sides, or 0 if neither has
     public int getCurrentWinner() {
-        return currentWinner;
+        return winner;
+    }
+
+    // Work out the winner from the side groups, for keeping winner up to date
+    private int findWinner() {
+        if (adjacency.connected(TOP, BOTTOM)) {
+            return 1;
+        }
+        if (adjacency.connected(LEFT, RIGHT)) {
+            return -1;
+        }
+        return 0;
     }
 
     @Override
@@ -344,10 +500,13 @@ public class BeehiveBoard implements Board {
         // indicates that the game is over.
 
         List<BeeHiveMove> validMoves = new ArrayList<>();
+        if (getCurrentWinner() != 0) {
+            return validMoves;
+        }
         for (int i = 0; i < BOARD_SIZE; i++) {
             for (int j = 0; j < BOARD_SIZE; j++) {
-                if (board[i][j].isEmpty()) {
-                    validMoves.add(new BeeHiveMove(i, j));
+                if (cells[i * BOARD_SIZE + j] == 0) {
+                    validMoves.add(CELL_MOVES[i * BOARD_SIZE + j]);
                 }
             }
         }
@@ -355,6 +514,74 @@ public class BeehiveBoard implements Board {
 
     }
 
+    @Override
+    public int getValidMoves(int[] moves) {
+        if (winner != 0) {
+            return 0;
+        }
+        int n = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (cells[cell] == 0) {
+                if (n < moves.length) {
+                    moves[n] = cell;
+                }
+                n++;
+            }
+        }
+        return n;
+    }
+
+    // Moves come in two stages: the empty cells next to a stone or a bridge
+    // away from one, where groups are joined and blocked, then the rest
+    @Override
+    public int getMoveStages() {
+        return 2;
+    }
+
+    @Override
+    public int getValidMoves(int stage, int[] moves) {
+        if (winner != 0 || stage > 1) {
+            return 0;
+        }
+        int n = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (cells[cell] == 0 && (contacts[cell] > 0) == (stage == 0)) {
+                if (n < moves.length) {
+                    moves[n] = cell;
+                }
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private void addContacts(int cell, int change) {
+        for (int other : connections.neighbours(cell)) {
+            contacts[other] += change;
+        }
+        for (int other : connections.bridges(cell)) {
+            contacts[other] += change;
+        }
+    }
+
+    @Override
+    public int encodeMove(Move m) {
+        BeeHiveMove move = (BeeHiveMove) m;
+        if (move.isSwap()) {
+            return SWAP;
+        }
+        if (move.row < 0 || move.row >= BOARD_SIZE || move.col < 0 || move.col >= BOARD_SIZE) {
+            return -1;
+        }
+        return move.row * BOARD_SIZE + move.col;
+    }
+
+    // The shared move for an encoding
+    @Override
+    public BeeHiveMove decodeMove(int move) {
+        return move == SWAP ? SWAP_MOVE : move >= 0 && move < CELLS ? CELL_MOVES[move] : null;
+    }
+
     @Override
     public int getCurrentPlayer() {
         // Return the current player
@@ -376,14 +603,25 @@ public class BeehiveBoard implements Board {
 
         if (!moveHistory.isEmpty()) {
             BeeHiveMove lastMove = (BeeHiveMove) moveHistory.remove(moveHistory.size() - 1);
+            currentPlayer = -currentPlayer;
+            hash ^= Zobrist.SIDE_TO_MOVE;
             if (!lastMove.isSwap()) {
-                board[lastMove.row][lastMove.col].setState(0);
-            } else {
-                currentPlayer = -currentPlayer;
+                cells[lastMove.row * BOARD_SIZE + lastMove.col] = 0;
+                hash ^= ZOBRIST[lastMove.row * BOARD_SIZE + lastMove.col][Zobrist.side(currentPlayer)];
+                adjacency.rollback();
+                bridgeGroups.rollback();
+                addContacts(lastMove.row * BOARD_SIZE + lastMove.col, -1);
+                score = scoreHistory[--stoneCount];
+                winner = 0; // No move is made once the game is won
             }
         }
     }
 
+    @Override
+    public long getHash() {
+        return hash;
+    }
+
     @Override
     public String toString() {
         // Return a string representation of the board
@@ -408,22 +646,23 @@ public class BeehiveBoard implements Board {
         // T . . r . . . . . . . .
         // E . . . . . . . . . . .
         // Player 2's move
-        BridgeGroup longestGroup = null;
-        for (BridgeGroup group : groups) {
-            if (longestGroup == null || group.size() > longestGroup.size()) {
-                longestGroup = group;
+        // Show the winning group, or else the largest bridge group, in upper case
+        int winner = getCurrentWinner();
+        int highlighted = -1;
+        if (winner == 0) {
+            int largest = 1;
+            for (int cell = 0; cell < CELLS; cell++) {
+                if (cells[cell] != 0
+                        && bridgeGroups.size(cell) > largest) {
+                    largest = bridgeGroups.size(cell);
+                    highlighted = bridgeGroups.find(cell);
+                }
             }
         }
 
         StringBuilder sb = new StringBuilder();
         String markers = " 1 2 3 4 5 6 7 8 9 T E\n";
         sb.append(markers);
-        List<Cell> winningPath = null;
-        if (hasWon(1)) {
-            winningPath = dfs(0, 0, new boolean[BOARD_SIZE][BOARD_SIZE], 1);
-        } else if (hasWon(-1)) {
-            winningPath = dfs(0, 0, new boolean[BOARD_SIZE][BOARD_SIZE], -1);
-        }
         for (int i = 0; i < BOARD_SIZE; i++) {
             for (int j = 0; j < i; j++) {
                 sb.append(" ");
@@ -432,13 +671,16 @@ public class BeehiveBoard implements Board {
             sb.append(markers.charAt(i * 2 + 1));
             for (int j = 0; j < BOARD_SIZE; j++) {
                 sb.append(" ");
-                int state = board[i][j].getState();
-                boolean isWinningCell = winningPath != null && winningPath.contains(board[i][j]);
-                Location location = new Location(i, j);
+                int cell = i * BOARD_SIZE + j;
+                int state = cells[cell];
+                boolean isWinningCell = winner != 0 && state == winner
+                        && adjacency.connected(cell, winner == 1 ? TOP : LEFT);
+                boolean isHighlighted = isWinningCell
+                        || (highlighted >= 0 && state != 0 && bridgeGroups.find(cell) == highlighted);
                 if (state == 1) {
-                    sb.append((isWinningCell || (longestGroup != null && longestGroup.contains(location))) ? "B" : "b");
+                    sb.append(isHighlighted ? "B" : "b");
                 } else if (state == -1) {
-                    sb.append((isWinningCell || (longestGroup != null && longestGroup.contains(location))) ? "R" : "r");
+                    sb.append(isHighlighted ? "R" : "r");
                 } else {
                     sb.append(".");
                 }
@@ -451,16 +693,6 @@ public class BeehiveBoard implements Board {
         } else if (hasWon(-1)) {
             sb.append("Player 2 has won the game\n");
         }
-
-        for (BridgeGroup group : groups) {
-            // Print the group details
-            System.out.println("Group: " + group.toString());
-
-            // Print the cells in the group
-            for (Location cell : group.getCells()) {
-                System.out.println("  Cell: " + cell.toString());
-            }
-        }
         return sb.toString();
 
         // StringBuilder sb = new StringBuilder();
@@ -504,17 +736,17 @@ public class BeehiveBoard implements Board {
         return getValue() == i * WIN;
     }
 
-    private boolean isValidMove(BeeHiveMove move) {
+    private boolean isValidMove(int move) {
         // Check if the move is valid based on game rules
         // Return true if the move is valid, false otherwise
 
-        if (move.isSwap()) {
+        if (move == SWAP) {
             return true;
         }
 
         // Add more conditions to check if the move is valid
         // For example, check if the cell at the move's row and column is empty
-        if (board[move.row][move.col].isEmpty()) {
+        if (move >= 0 && move < CELLS && cells[move] == 0) {
             return true;
         }
 
@@ -527,93 +759,8 @@ public class BeehiveBoard implements Board {
         return connections;
     }
 
-    private boolean isConnected(int player) {
-        boolean[][] visited = new boolean[BOARD_SIZE][BOARD_SIZE];
-        // For player 1, start from the top row
-        if (player == 1) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                if (board[0][col].getState() == player) {
-                    if (dfs(0, col, visited, player) != null) {
-                        return true;
-                    }
-                }
-            }
-        }
-        // For player 2, start from the leftmost column
-        else if (player == -1) {
-            for (int row = 0; row < BOARD_SIZE; row++) {
-                if (board[row][0].getState() == player) {
-                    if (dfs(row, 0, visited, player) != null) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
-    }
-
-    private List<Cell> dfs(int row, int col, boolean[][] visited, int player) {
-        if ((player == 1 && row == BOARD_SIZE - 1) || (player == -1 && col == BOARD_SIZE - 1)) {
-            return new ArrayList<>(Arrays.asList(board[row][col]));
-        }
-
-        visited[row][col] = true;
-
-        int[] dr = { -1, -1, 0, 0, 1, 1 };
-        int[] dc = { -1, 0, -1, 1, 0, 1 };
-
-        for (int i = 0; i < 6; i++) {
-            int newRow = row + dr[i];
-            int newCol = col + dc[i];
-            if (newRow >= 0 && newRow < BOARD_SIZE && newCol >= 0 && newCol < BOARD_SIZE
-                    && !visited[newRow][newCol] && board[newRow][newCol].getState() == player) {
-                List<Cell> path = dfs(newRow, newCol, visited, player);
-                if (path != null) {
-                    path.add(board[row][col]);
-                    return path;
-                }
-            }
-        }
-
-        return null;
-    }
-
-    public boolean isPlayerOneSide(Location cell) {
-        return cell.getRow() == 0;
-    }
-
-    public boolean isOppositeSide(Location current, int player) {
-        return player == 1 ? current.getRow() == BOARD_SIZE - 1 : current.getCol() == BOARD_SIZE - 1;
-    }
-
-    public void addGroup(BridgeGroup group) {
-        groups.add(group);
-    }
-
-    public void removeGroup(BridgeGroup group) {
-        groups.remove(group);
-    }
-
-    public BridgeGroup getGroup(Location cell) {
-        // Iterate over all groups
-        for (BridgeGroup group : groups) {
-            // If the group contains the cell, return the group
-            if (group.contains(cell)) {
-                return group;
-            }
-        }
-
-        // If no group contains the cell, return null
-        return null;
-    }
-
     public int getState(Location cell) {
-        return board[cell.getRow()][cell.getCol()].getState();
-    }
-
-    public void setGroup(Location cell, BridgeGroup bridgeGroup) {
-        // Set the group of the cell
-        board[cell.getRow()][cell.getCol()].setGroup(bridgeGroup);
+        return cells[cell.getRow() * BOARD_SIZE + cell.getCol()];
     }
 
 }
\ No newline at end of file
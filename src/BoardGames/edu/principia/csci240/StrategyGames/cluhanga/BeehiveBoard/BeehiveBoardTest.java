@@ -0,0 +1,171 @@
+package boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import boardgames.edu.principia.csci240.strategygames.Board;
+
+class BeehiveBoardTest {
+    private static void play(Board board, String... moves) throws Exception {
+        for (String text : moves) {
+            Board.Move move = board.createMove();
+            move.fromString(text);
+            board.applyMove(move);
+        }
+    }
+
+    @Test
+    void testConnectionWinsAndEndsGame() throws Exception {
+        BeehiveBoard board = new BeehiveBoard();
+        for (int col = 1; col < 11; col++) {
+            play(board, "5," + col, "1," + col);
+        }
+        assertEquals(0, board.getCurrentWinner());
+        play(board, "9,9", "1,11");
+        assertEquals(-Board.WIN, board.getValue());
+        assertTrue(board.getValidMoves().isEmpty());
+        assertThrows(Board.InvalidMoveException.class, () -> play(board, "9,10"));
+    }
+
+    @Test
+    void testUndoRestoresGroups() throws Exception {
+        BeehiveBoard board = new BeehiveBoard();
+        play(board, "1,1", "5,5", "3,2");
+        int bridged = board.getValue();
+        board.undoMove();
+        play(board, "3,3");
+        assertTrue(bridged > board.getValue(), "A bridge should score more than separate stones");
+        BeehiveBoard fresh = new BeehiveBoard();
+        play(fresh, "1,1", "5,5", "3,3");
+        assertEquals(fresh.getValue(), board.getValue());
+        assertEquals(fresh.toString(), board.toString(), "The bridge to 3,2 should be gone");
+
+        for (int row = 1; row <= 11; row++) {
+            play(board, row + ",7", row + ",8");
+        }
+        assertEquals(Board.WIN, board.getValue());
+        board.undoMove();
+        board.undoMove();
+        assertEquals(0, board.getCurrentWinner());
+        play(board, "11,8", "10,10");
+        assertEquals(0, board.getCurrentWinner());
+        assertFalse(board.getValidMoves().isEmpty());
+    }
+
+    // Walk through random games, retracting a random number of moves whenever
+    // one ends, and compare the incrementally kept value with a recompute at
+    // every step, so the check runs without assertions enabled too
+    @Test
+    void testIncrementalValueMatchesRecompute() throws Exception {
+        java.util.Random rnd = new java.util.Random(15);
+        BeehiveBoard board = new BeehiveBoard();
+        int[] moves = new int[121];
+        int wins = 0;
+        for (int step = 0; step < 20_000; step++) {
+            int count = board.getValidMoves(moves);
+            if (count == 0 || rnd.nextInt(100) == 0 && !board.getMoveHistory().isEmpty()) {
+                wins += count == 0 ? 1 : 0;
+                for (int undo = rnd.nextInt(board.getMoveHistory().size()) + 1; undo > 0; undo--) {
+                    board.undoMove();
+                    assertEquals(board.computeValue(), board.getValue());
+                }
+            } else {
+                board.applyMove(moves[rnd.nextInt(count)]);
+                assertEquals(board.computeValue(), board.getValue());
+            }
+        }
+        assertTrue(wins > 0, "The walk should reach won positions");
+    }
+
+    @Test
+    void testSharedMovesCannotBeChanged() throws Exception {
+        Board[] boards = { new BeehiveBoard(), new BitBeehiveBoard() };
+        for (Board board : boards) {
+            play(board, "1,1");
+            Board other = board.getClass().getDeclaredConstructor().newInstance();
+            Board.Move shared = other.getValidMoves().get(0);
+            assertThrows(UnsupportedOperationException.class, () -> shared.fromString("6,6"));
+            assertThrows(UnsupportedOperationException.class,
+                    () -> shared.read(new java.io.ByteArrayInputStream(new byte[] { 0x66 })));
+            assertEquals("1,1", board.getMoveHistory().get(0).toString());
+            board.undoMove();
+            assertEquals(new BeehiveBoard().getHash(), board.getHash());
+            assertEquals(board.createMove().getClass(), BeehiveBoard.BeeHiveMove.class);
+            assertEquals(board.decodeMove(0), new BeehiveBoard.BeeHiveMove(0, 0));
+        }
+    }
+
+    @Test
+    void testCopiesMoveAndUndoIndependently() throws Exception {
+        Board[] boards = { new BeehiveBoard(), new BitBeehiveBoard() };
+        for (Board board : boards) {
+            play(board, "1,1", "5,5", "3,3", "5,6");
+            Board copy = board.copy();
+            assertSame(board.getClass(), copy.getClass());
+            assertEquals(board.getHash(), copy.getHash());
+            assertEquals(board.getValue(), copy.getValue());
+            assertEquals(board.getMoveHistory(), copy.getMoveHistory());
+
+            // Win on the copy, then retract all of it past the copied moves
+            for (int row = 2; row < 11; row++) {
+                play(copy, row + ",1", row + ",2");
+            }
+            play(copy, "11,1");
+            assertEquals(Board.WIN, copy.getValue());
+            assertEquals(4, board.getMoveHistory().size());
+            assertEquals(117, board.getValidMoves().size());
+            while (!copy.getMoveHistory().isEmpty()) {
+                copy.undoMove();
+            }
+            assertEquals(new BeehiveBoard().getHash(), copy.getHash());
+            assertEquals(0, copy.getValue());
+
+            play(board, "4,4");
+            assertEquals(5, board.getMoveHistory().size());
+        }
+    }
+
+    @Test
+    void testIntMovesMatchMoveObjects() throws Exception {
+        BeehiveBoard board = new BeehiveBoard();
+        play(board, "2,3", "6,6");
+        java.util.List<? extends Board.Move> moves = board.getValidMoves();
+        int[] codes = new int[moves.size()];
+        assertEquals(moves.size(), board.getValidMoves(codes));
+        for (int i = 0; i < codes.length; i++) {
+            assertSame(moves.get(i), board.decodeMove(codes[i]));
+            assertEquals(codes[i], board.encodeMove(moves.get(i)));
+        }
+        assertEquals(BeehiveBoard.SWAP, board.encodeMove(board.createMove()));
+        assertEquals(-1, board.encodeMove(new BeehiveBoard.BeeHiveMove(11, 0)));
+
+        long hash = board.getHash();
+        board.applyMove(codes[5]);
+        assertSame(moves.get(5), board.getMoveHistory().get(2));
+        board.undoMove();
+        assertEquals(hash, board.getHash());
+        assertThrows(Board.InvalidMoveException.class, () -> board.applyMove(13)); // "2,3"
+        assertThrows(Board.InvalidMoveException.class, () -> board.applyMove(-1));
+    }
+
+    @Test
+    void testTrustedMovesMatchCheckedMoves() throws Exception {
+        Board[] checked = { new BeehiveBoard(), new BitBeehiveBoard() };
+        Board[] trusted = { new BeehiveBoard(), new BitBeehiveBoard() };
+        for (int i = 0; i < checked.length; i++) {
+            for (int cell : new int[] { 60, 13, 37, 14 }) {
+                checked[i].applyMove(cell);
+                trusted[i].applyTrustedMove(cell);
+            }
+            assertEquals(checked[i].getHash(), trusted[i].getHash());
+            assertEquals(checked[i].getValue(), trusted[i].getValue());
+
+            boolean assertions = false;
+            assert assertions = true;
+            if (assertions) {
+                Board board = trusted[i];
+                assertThrows(AssertionError.class, () -> board.applyTrustedMove(13));
+            }
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import boardgames.edu.principia.csci240.strategygames.Board;
+import boardgames.edu.principia.csci240.strategygames.Zobrist;
+import boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard.BeehiveBoard.BeeHiveMove;
+
+/**
+ * A Beehive board that keeps each player's stones as a 121-bit mask instead of
+ * an array of cell states. Cell (row, col) is bit row * 11 + col, with bits 0-63
+ * in a low long and bits 64-120 in a high long.
+ *
+ * It plays the same game as BeehiveBoard, with the same moves, move order,
+ * values and hashes, so the two can be swapped in BoardDriver. Player 1
+ * connects the top row to the bottom row and player 2 the left column to the
+ * right column, over the six neighbours (row - 1, col - 1), (row - 1, col),
+ * (row, col - 1), (row, col + 1), (row + 1, col) and (row + 1, col + 1). A
+ * completed connection ends the game: getValue returns WIN or -WIN and
+ * getValidMoves returns no moves.
+ *
+ * Connectivity is found by flood fill: the set of reached stones is grown by
+ * shifting it one step in each of the six directions at once and ANDing with
+ * the player's stones, until it stops changing. Shifts that would wrap a
+ * stone from one row onto the next are masked off by column.
+ */
+public class BitBeehiveBoard implements Board {
+    private static final int BOARD_SIZE = 11;
+    private static final int CELLS = BOARD_SIZE * BOARD_SIZE;
+    private static final int SWAP = BeehiveBoard.SWAP;
+    private static final long[][] ZOBRIST = Zobrist.keys(CELLS, 0xBEE5L);
+
+    // Masks over the 121 bits, as {low, high}
+    private static final long HIGH_MASK = (1L << (CELLS - 64)) - 1;
+    private static final long[] ALL = { -1L, HIGH_MASK };
+    private static final long[] TOP_ROW = rowMask(0);
+    private static final long[] BOTTOM_ROW = rowMask(BOARD_SIZE - 1);
+    private static final long[] LEFT_COLUMN = columnMask(0);
+    private static final long[] RIGHT_COLUMN = columnMask(BOARD_SIZE - 1);
+
+    // Cells a shift may land on: moving a column right must not land in column
+    // 0, and moving left must not land in the last column
+    private static final long[] NOT_FIRST_COLUMN = invert(LEFT_COLUMN);
+    private static final long[] NOT_LAST_COLUMN = invert(RIGHT_COLUMN);
+    private static final long[] NOT_FIRST_TWO_COLUMNS = and(NOT_FIRST_COLUMN, invert(columnMask(1)));
+    private static final long[] NOT_LAST_TWO_COLUMNS = and(NOT_LAST_COLUMN, invert(columnMask(BOARD_SIZE - 2)));
+
+    // The six neighbours of each cell, and the six cells a bridge away from it
+    // (sharing two neighbours with it), as {low, high} per cell
+    static final long[][] NEIGHBOURS = new long[CELLS][];
+    static final long[][] BRIDGES = new long[CELLS][];
+
+    // Moves are handed out and kept in the history as BeehiveBoard's shared,
+    // unchangeable ones
+    private static final BeeHiveMove SWAP_MOVE = BeehiveBoard.SWAP_MOVE;
+    private static final BeeHiveMove[] CELL_MOVES = BeehiveBoard.CELL_MOVES;
+
+    static {
+        Connections connections = Connections.forSize(BOARD_SIZE);
+        for (int cell = 0; cell < CELLS; cell++) {
+            NEIGHBOURS[cell] = cellMask(connections.neighbours(cell));
+            BRIDGES[cell] = cellMask(connections.bridges(cell));
+        }
+    }
+
+    // stones[0] for player 1 and stones[1] for player 2, each {low, high}
+    private final long[][] stones = { new long[2], new long[2] };
+    private int currentPlayer = PLAYER_1;
+    private int winner; // The player who has connected their sides, or 0
+    private final List<BeeHiveMove> moveHistory = new ArrayList<>();
+    private long hash;
+
+    // Scratch masks for flood fills, reused so a fill allocates nothing
+    private final long[] fill = new long[2];
+    private final long[] grown = new long[2];
+    private final long[] near = new long[2];
+
+    public BitBeehiveBoard() {
+    }
+
+    // Copy other's state. Its history holds only the shared, unchanging moves.
+    private BitBeehiveBoard(BitBeehiveBoard other) {
+        for (int side = 0; side < 2; side++) {
+            System.arraycopy(other.stones[side], 0, stones[side], 0, 2);
+        }
+        currentPlayer = other.currentPlayer;
+        winner = other.winner;
+        moveHistory.addAll(other.moveHistory);
+        hash = other.hash;
+    }
+
+    @Override
+    public BitBeehiveBoard copy() {
+        return new BitBeehiveBoard(this);
+    }
+
+    @Override
+    public Move createMove() {
+        return new BeeHiveMove();
+    }
+
+    @Override
+    public void applyMove(Move m) throws InvalidMoveException {
+        applyMove(encodeMove(m));
+    }
+
+    // Moves are encoded as in BeehiveBoard: their cell, or SWAP
+    @Override
+    public void applyMove(int move) throws InvalidMoveException {
+        if (winner != 0) {
+            throw new InvalidMoveException("The game is over");
+        }
+        if (move != SWAP && (move < 0 || move >= CELLS || isOccupied(move))) {
+            throw new InvalidMoveException("Invalid move");
+        }
+        place(move);
+    }
+
+    @Override
+    public void applyTrustedMove(int move) {
+        assert winner == 0 && (move == SWAP || (move >= 0 && move < CELLS && !isOccupied(move)))
+                : "Invalid trusted move " + move;
+        place(move);
+    }
+
+    // Make a valid move, unchecked
+    private void place(int move) {
+        if (move == SWAP) {
+            moveHistory.add(SWAP_MOVE);
+        } else {
+            long[] own = stones[Zobrist.side(currentPlayer)];
+            own[move >> 6] |= 1L << move;
+            hash ^= ZOBRIST[move][Zobrist.side(currentPlayer)];
+            if (connectsSides(move, currentPlayer)) {
+                winner = currentPlayer;
+            }
+            moveHistory.add(CELL_MOVES[move]);
+        }
+        currentPlayer = -currentPlayer;
+        hash ^= Zobrist.SIDE_TO_MOVE;
+    }
+
+    @Override
+    public void undoMove() {
+        if (moveHistory.isEmpty()) {
+            return;
+        }
+        BeeHiveMove lastMove = moveHistory.remove(moveHistory.size() - 1);
+        currentPlayer = -currentPlayer;
+        hash ^= Zobrist.SIDE_TO_MOVE;
+        if (!lastMove.isSwap()) {
+            // Only the last move can have won, since none may follow a win
+            int cell = lastMove.row * BOARD_SIZE + lastMove.col;
+            stones[Zobrist.side(currentPlayer)][cell >> 6] &= ~(1L << cell);
+            hash ^= ZOBRIST[cell][Zobrist.side(currentPlayer)];
+            winner = 0;
+        }
+    }
+
+    // Return WIN or -WIN once a player has connected their sides. Otherwise
+    // score as BeehiveBoard does: each stone scores 1, plus 2 more if it is
+    // next to or a bridge away from another of its owner's stones, and each
+    // bridge group scores its size, which adds up to 1 more per stone.
+    @Override
+    public int getValue() {
+        if (winner != 0) {
+            return winner * WIN;
+        }
+        return score(stones[0]) - score(stones[1]);
+    }
+
+    private int score(long[] own) {
+        long[] linked = grown;
+        expand(own, linked, true);
+        long lo = own[0] & linked[0];
+        long hi = own[1] & linked[1];
+        int stones = Long.bitCount(own[0]) + Long.bitCount(own[1]);
+        return stones + 2 * (Long.bitCount(lo) + Long.bitCount(hi)) + stones;
+    }
+
+    @Override
+    public List<BeeHiveMove> getValidMoves() {
+        List<BeeHiveMove> moves = new ArrayList<>();
+        if (winner != 0) {
+            return moves;
+        }
+        long emptyLow = ~(stones[0][0] | stones[1][0]);
+        long emptyHigh = ~(stones[0][1] | stones[1][1]) & HIGH_MASK;
+        for (long bits = emptyLow; bits != 0; bits &= bits - 1) {
+            moves.add(CELL_MOVES[Long.numberOfTrailingZeros(bits)]);
+        }
+        for (long bits = emptyHigh; bits != 0; bits &= bits - 1) {
+            moves.add(CELL_MOVES[64 + Long.numberOfTrailingZeros(bits)]);
+        }
+        return moves;
+    }
+
+    @Override
+    public int getValidMoves(int[] moves) {
+        if (winner != 0) {
+            return 0;
+        }
+        long emptyLow = ~(stones[0][0] | stones[1][0]);
+        long emptyHigh = ~(stones[0][1] | stones[1][1]) & HIGH_MASK;
+        int count = Long.bitCount(emptyLow) + Long.bitCount(emptyHigh);
+        if (count > moves.length) {
+            return count;
+        }
+        int n = 0;
+        for (long bits = emptyLow; bits != 0; bits &= bits - 1) {
+            moves[n++] = Long.numberOfTrailingZeros(bits);
+        }
+        for (long bits = emptyHigh; bits != 0; bits &= bits - 1) {
+            moves[n++] = 64 + Long.numberOfTrailingZeros(bits);
+        }
+        return n;
+    }
+
+    // Moves come in two stages, as in BeehiveBoard: the empty cells next to a
+    // stone or a bridge away from one, then the rest
+    @Override
+    public int getMoveStages() {
+        return 2;
+    }
+
+    @Override
+    public int getValidMoves(int stage, int[] moves) {
+        if (winner != 0 || stage > 1) {
+            return 0;
+        }
+        near[0] = stones[0][0] | stones[1][0];
+        near[1] = stones[0][1] | stones[1][1];
+        expand(near, near, true);
+        long emptyLow = ~(stones[0][0] | stones[1][0]) & (stage == 0 ? near[0] : ~near[0]);
+        long emptyHigh = ~(stones[0][1] | stones[1][1]) & (stage == 0 ? near[1] : ~near[1]) & HIGH_MASK;
+        int count = Long.bitCount(emptyLow) + Long.bitCount(emptyHigh);
+        if (count > moves.length) {
+            return count;
+        }
+        int n = 0;
+        for (long bits = emptyLow; bits != 0; bits &= bits - 1) {
+            moves[n++] = Long.numberOfTrailingZeros(bits);
+        }
+        for (long bits = emptyHigh; bits != 0; bits &= bits - 1) {
+            moves[n++] = 64 + Long.numberOfTrailingZeros(bits);
+        }
+        return n;
+    }
+
+    @Override
+    public int encodeMove(Move m) {
+        BeeHiveMove move = (BeeHiveMove) m;
+        if (move.isSwap()) {
+            return SWAP;
+        }
+        if (move.row < 0 || move.row >= BOARD_SIZE || move.col < 0 || move.col >= BOARD_SIZE) {
+            return -1;
+        }
+        return move.row * BOARD_SIZE + move.col;
+    }
+
+    @Override
+    public BeeHiveMove decodeMove(int move) {
+        return move == SWAP ? SWAP_MOVE : move >= 0 && move < CELLS ? CELL_MOVES[move] : null;
+    }
+
+    @Override
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    @Override
+    public List<BeeHiveMove> getMoveHistory() {
+        return moveHistory;
+    }
+
+    @Override
+    public long getHash() {
+        return hash;
+    }
+
+    // Return 1 or -1 for the player holding (row, col), or 0 if it is empty
+    public int getState(int row, int col) {
+        int cell = row * BOARD_SIZE + col;
+        return has(stones[0], cell) ? PLAYER_1 : has(stones[1], cell) ? PLAYER_2 : 0;
+    }
+
+    public int getWinner() {
+        return winner;
+    }
+
+    private boolean isOccupied(int cell) {
+        return has(stones[0], cell) || has(stones[1], cell);
+    }
+
+    private static boolean has(long[] mask, int cell) {
+        return (mask[cell >> 6] & 1L << cell) != 0;
+    }
+
+    // Whether the group of player's stones containing the newly placed cell
+    // touches both of player's sides. Flood fill out from the cell, starting
+    // from it and its precomputed neighbours of the same colour.
+    private boolean connectsSides(int cell, int player) {
+        long[] own = stones[Zobrist.side(player)];
+        long[] neighbours = NEIGHBOURS[cell];
+        fill[0] = own[0] & neighbours[0];
+        fill[1] = own[1] & neighbours[1];
+        fill[cell >> 6] |= 1L << cell;
+        floodFill(own, fill);
+        long[] start = player == PLAYER_1 ? TOP_ROW : LEFT_COLUMN;
+        long[] end = player == PLAYER_1 ? BOTTOM_ROW : RIGHT_COLUMN;
+        return ((fill[0] & start[0]) | (fill[1] & start[1])) != 0
+                && ((fill[0] & end[0]) | (fill[1] & end[1])) != 0;
+    }
+
+    // Grow region to every stone of own connected to it
+    private void floodFill(long[] own, long[] region) {
+        while (true) {
+            expand(region, grown, false);
+            long lo = (region[0] | grown[0]) & own[0];
+            long hi = (region[1] | grown[1]) & own[1];
+            if (lo == region[0] && hi == region[1]) {
+                return;
+            }
+            region[0] = lo;
+            region[1] = hi;
+        }
+    }
+
+    // Set result to the cells next to any cell of mask, and with bridges also
+    // to the cells a bridge away. Steps down the board are left shifts by
+    // 11 * rows + columns, and steps up are right shifts.
+    static void expand(long[] mask, long[] result, boolean bridges) {
+        long lo = mask[0];
+        long hi = mask[1];
+        long outLo = 0;
+        long outHi = 0;
+
+        // (0, +1), (+1, +1), (+1, 0)
+        outLo |= shiftLeftLow(lo, 1) & NOT_FIRST_COLUMN[0];
+        outHi |= shiftLeftHigh(lo, hi, 1) & NOT_FIRST_COLUMN[1];
+        outLo |= shiftLeftLow(lo, 12) & NOT_FIRST_COLUMN[0];
+        outHi |= shiftLeftHigh(lo, hi, 12) & NOT_FIRST_COLUMN[1];
+        outLo |= shiftLeftLow(lo, 11);
+        outHi |= shiftLeftHigh(lo, hi, 11);
+        // (0, -1), (-1, -1), (-1, 0)
+        outLo |= shiftRightLow(lo, hi, 1) & NOT_LAST_COLUMN[0];
+        outHi |= shiftRightHigh(hi, 1) & NOT_LAST_COLUMN[1];
+        outLo |= shiftRightLow(lo, hi, 12) & NOT_LAST_COLUMN[0];
+        outHi |= shiftRightHigh(hi, 12) & NOT_LAST_COLUMN[1];
+        outLo |= shiftRightLow(lo, hi, 11);
+        outHi |= shiftRightHigh(hi, 11);
+
+        if (bridges) {
+            // (+1, +2), (+2, +1), (+1, -1)
+            outLo |= shiftLeftLow(lo, 13) & NOT_FIRST_TWO_COLUMNS[0];
+            outHi |= shiftLeftHigh(lo, hi, 13) & NOT_FIRST_TWO_COLUMNS[1];
+            outLo |= shiftLeftLow(lo, 23) & NOT_FIRST_COLUMN[0];
+            outHi |= shiftLeftHigh(lo, hi, 23) & NOT_FIRST_COLUMN[1];
+            outLo |= shiftLeftLow(lo, 10) & NOT_LAST_COLUMN[0];
+            outHi |= shiftLeftHigh(lo, hi, 10) & NOT_LAST_COLUMN[1];
+            // (-1, -2), (-2, -1), (-1, +1)
+            outLo |= shiftRightLow(lo, hi, 13) & NOT_LAST_TWO_COLUMNS[0];
+            outHi |= shiftRightHigh(hi, 13) & NOT_LAST_TWO_COLUMNS[1];
+            outLo |= shiftRightLow(lo, hi, 23) & NOT_LAST_COLUMN[0];
+            outHi |= shiftRightHigh(hi, 23) & NOT_LAST_COLUMN[1];
+            outLo |= shiftRightLow(lo, hi, 10) & NOT_FIRST_COLUMN[0];
+            outHi |= shiftRightHigh(hi, 10) & NOT_FIRST_COLUMN[1];
+        }
+        result[0] = outLo;
+        result[1] = outHi & HIGH_MASK;
+    }
+
+    // The low and high halves of a 128-bit shift, for 0 < n < 64
+    private static long shiftLeftLow(long lo, int n) {
+        return lo << n;
+    }
+
+    private static long shiftLeftHigh(long lo, long hi, int n) {
+        return hi << n | lo >>> (64 - n);
+    }
+
+    private static long shiftRightLow(long lo, long hi, int n) {
+        return lo >>> n | hi << (64 - n);
+    }
+
+    private static long shiftRightHigh(long hi, int n) {
+        return hi >>> n;
+    }
+
+    private static long[] rowMask(int row) {
+        long[] mask = new long[2];
+        for (int col = 0; col < BOARD_SIZE; col++) {
+            int cell = row * BOARD_SIZE + col;
+            mask[cell >> 6] |= 1L << cell;
+        }
+        return mask;
+    }
+
+    private static long[] columnMask(int col) {
+        long[] mask = new long[2];
+        for (int row = 0; row < BOARD_SIZE; row++) {
+            int cell = row * BOARD_SIZE + col;
+            mask[cell >> 6] |= 1L << cell;
+        }
+        return mask;
+    }
+
+    private static long[] invert(long[] mask) {
+        return new long[] { ~mask[0] & ALL[0], ~mask[1] & ALL[1] };
+    }
+
+    private static long[] and(long[] a, long[] b) {
+        return new long[] { a[0] & b[0], a[1] & b[1] };
+    }
+
+    private static long[] cellMask(int[] cells) {
+        long[] mask = new long[2];
+        for (int cell : cells) {
+            mask[cell >> 6] |= 1L << cell;
+        }
+        return mask;
+    }
+
+    // Same layout as BeehiveBoard.toString, with the winning group, if any, in
+    // upper case.
+    @Override
+    public String toString() {
+        long[] winning = new long[2];
+        if (winner != 0) {
+            long[] own = stones[Zobrist.side(winner)];
+            long[] start = winner == PLAYER_1 ? TOP_ROW : LEFT_COLUMN;
+            winning[0] = own[0] & start[0];
+            winning[1] = own[1] & start[1];
+            floodFill(own, winning);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        String markers = " 1 2 3 4 5 6 7 8 9 T E\n";
+        sb.append(markers);
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            for (int j = 0; j < i; j++) {
+                sb.append(" ");
+            }
+            sb.append(markers.charAt(i * 2));
+            sb.append(markers.charAt(i * 2 + 1));
+            for (int j = 0; j < BOARD_SIZE; j++) {
+                sb.append(" ");
+                int state = getState(i, j);
+                boolean isWinningCell = has(winning, i * BOARD_SIZE + j);
+                if (state == PLAYER_1) {
+                    sb.append(isWinningCell ? "B" : "b");
+                } else if (state == PLAYER_2) {
+                    sb.append(isWinningCell ? "R" : "r");
+                } else {
+                    sb.append(".");
+                }
+            }
+            sb.append("\n");
+        }
+        sb.append("Player " + (currentPlayer == PLAYER_1 ? "1" : "2") + "'s move\n");
+        if (winner != 0) {
+            sb.append("Player " + (winner == PLAYER_1 ? "1" : "2") + " has won the game\n");
+        }
+        return sb.toString();
+    }
+}
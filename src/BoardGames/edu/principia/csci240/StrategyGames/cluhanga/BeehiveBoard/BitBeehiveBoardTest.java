@@ -0,0 +1,114 @@
+package boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import boardgames.edu.principia.csci240.strategygames.Board;
+
+class BitBeehiveBoardTest {
+    private static final int SIZE = 11;
+    private static final int[] DR = { -1, -1, 0, 0, 1, 1 };
+    private static final int[] DC = { -1, 0, -1, 1, 0, 1 };
+
+    private static void play(Board board, String... moves) throws Exception {
+        for (String text : moves) {
+            Board.Move move = board.createMove();
+            move.fromString(text);
+            board.applyMove(move);
+        }
+    }
+
+    @Test
+    void testShiftsMatchNeighbourMasks() {
+        long[] result = new long[2];
+        for (int cell = 0; cell < SIZE * SIZE; cell++) {
+            long[] single = new long[2];
+            single[cell >> 6] = 1L << cell;
+            BitBeehiveBoard.expand(single, result, false);
+            assertArrayEquals(BitBeehiveBoard.NEIGHBOURS[cell], result, "Neighbours of " + cell);
+            BitBeehiveBoard.expand(single, result, true);
+            long[] both = { BitBeehiveBoard.NEIGHBOURS[cell][0] | BitBeehiveBoard.BRIDGES[cell][0],
+                    BitBeehiveBoard.NEIGHBOURS[cell][1] | BitBeehiveBoard.BRIDGES[cell][1] };
+            assertArrayEquals(both, result, "Bridges of " + cell);
+        }
+    }
+
+    @Test
+    void testDetectsWin() throws Exception {
+        BitBeehiveBoard board = new BitBeehiveBoard();
+        for (int row = 1; row < SIZE; row++) {
+            play(board, row + ",3", row + ",9");
+        }
+        assertEquals(0, board.getWinner());
+        play(board, "11,3");
+        assertEquals(Board.WIN, board.getValue());
+        assertTrue(board.getValidMoves().isEmpty());
+        assertTrue(board.toString().contains("Player 1 has won"));
+
+        board.undoMove();
+        assertTrue(Math.abs(board.getValue()) < Board.WIN);
+        assertEquals(SIZE * SIZE - 20, board.getValidMoves().size());
+    }
+
+    // Play random games, checking the bitboard's moves, values and hashes
+    // against BeehiveBoard, through every move and retraction, and its wins
+    // against a plain depth-first search.
+    @Test
+    void testMatchesBeehiveBoard() throws Exception {
+        Random rnd = new Random(11);
+        for (int game = 0; game < 20; game++) {
+            BitBeehiveBoard bits = new BitBeehiveBoard();
+            BeehiveBoard cells = new BeehiveBoard();
+            while (bits.getWinner() == 0) {
+                List<? extends Board.Move> moves = bits.getValidMoves();
+                assertEquals(cells.getValidMoves(), moves);
+                Board.Move move = moves.get(rnd.nextInt(moves.size()));
+                bits.applyMove(move);
+                cells.applyMove(move);
+                assertEquals(cells.getHash(), bits.getHash());
+                assertEquals(cells.getValue(), bits.getValue());
+                assertEquals(connected(bits, Board.PLAYER_1) ? 1 : connected(bits, Board.PLAYER_2) ? -1 : 0,
+                        bits.getWinner());
+            }
+            assertTrue(cells.getValidMoves().isEmpty());
+            while (!bits.getMoveHistory().isEmpty()) {
+                bits.undoMove();
+                cells.undoMove();
+                assertEquals(cells.getHash(), bits.getHash());
+                assertEquals(cells.getValue(), bits.getValue());
+            }
+        }
+    }
+
+    private static boolean connected(BitBeehiveBoard board, int player) {
+        boolean[][] visited = new boolean[SIZE][SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            int row = player == Board.PLAYER_1 ? 0 : i;
+            int col = player == Board.PLAYER_1 ? i : 0;
+            if (reaches(board, row, col, player, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean reaches(BitBeehiveBoard board, int row, int col, int player, boolean[][] visited) {
+        if (row < 0 || row >= SIZE || col < 0 || col >= SIZE || visited[row][col]
+                || board.getState(row, col) != player) {
+            return false;
+        }
+        visited[row][col] = true;
+        if (player == Board.PLAYER_1 ? row == SIZE - 1 : col == SIZE - 1) {
+            return true;
+        }
+        for (int i = 0; i < 6; i++) {
+            if (reaches(board, row + DR[i], col + DC[i], player, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -9,11 +9,7 @@ class ConnectionsTest {
         assertEquals(1, 1);
         Connections connections = new Connections();
         Location cell = new Location(1, 1);
-        Location other = new Location(3, 1);
-
-        // Add the necessary cells to form a bridge
-        connections.addConnection(new Location(1, 1), new Location(2, 1));
-        connections.addConnection(new Location(2, 1), new Location(3, 1));
+        Location other = new Location(3, 2);
 
         // Test the isBridge method
         assertTrue(connections.isBridge(cell, other), "Expected a bridge between the two locations");
@@ -38,4 +34,39 @@ class ConnectionsTest {
         Location other2 = new Location(2, 2);
         assertFalse(connections.isAdjacent(cell2, other2), "Expected the two locations to not be adjacent");
     }
+
+    @Test
+    void testTablesAreSharedAndSymmetric() {
+        Connections connections = Connections.forSize(11);
+        assertSame(connections, Connections.forSize(11));
+        assertSame(connections.neighbours(60), new Connections().neighbours(60));
+
+        for (int cell = 0; cell < 121; cell++) {
+            for (int other : connections.neighbours(cell)) {
+                assertTrue(contains(connections.neighbours(other), cell));
+            }
+            int[] bridges = connections.bridges(cell);
+            int[] carriers = connections.carriers(cell);
+            for (int i = 0; i < bridges.length; i++) {
+                assertTrue(contains(connections.bridges(bridges[i]), cell));
+                for (int carrier : new int[] { carriers[2 * i], carriers[2 * i + 1] }) {
+                    assertTrue(contains(connections.neighbours(cell), carrier));
+                    assertTrue(contains(connections.neighbours(bridges[i]), carrier));
+                }
+            }
+        }
+        assertEquals(6, connections.neighbours(60).length);
+        assertEquals(3, connections.neighbours(0).length);
+        assertEquals(2, connections.neighbours(10).length);
+        assertEquals(6, connections.bridges(60).length);
+    }
+
+    private static boolean contains(int[] cells, int cell) {
+        for (int other : cells) {
+            if (other == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -1,288 +1,214 @@
 package boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Connections Class Development Guide for Beehive Game
- * 
+ *
  * Overview:
- * The Connections class is responsible for managing the direct adjacency
- * relationships between cells on the Beehive game board. It should efficiently
- * determine if two cells are adjacent (share an edge) on the hexagonal grid.
- * 
- * Requirements:
- * - Efficiently store and query adjacency relationships between cells
- * identified by their Location.
- * - Support the game logic by providing methods to check if two cells are
- * adjacent.
- * 
+ * The Connections class describes the fixed geometry of the Beehive game
+ * board: which cells are adjacent (share an edge) on the hexagonal grid, and
+ * which are a bridge apart (two steps apart, sharing two neighbours, the
+ * "carriers" of the bridge). The geometry never changes during a game, so it
+ * is computed once per board size and shared by every board of that size.
+ *
+ * Cells are identified by an index, row * size + col. Cell (row, col) is
+ * adjacent to (row - 1, col - 1), (row - 1, col), (row, col - 1),
+ * (row, col + 1), (row + 1, col) and (row + 1, col + 1), and a bridge apart
+ * from (row - 2, col - 1), (row - 1, col - 2), (row - 1, col + 1),
+ * (row + 1, col - 1), (row + 1, col + 2) and (row + 2, col + 1).
+ *
  * Member Variables:
- * - adjacencyMap: A data structure (e.g., HashMap<Location, List<Location>>)
- * that maps each cell location to a list of locations that are adjacent to it.
- * 
+ * - neighbours: For each cell, the indices of its adjacent cells.
+ * - bridges: For each cell, the indices of the cells a bridge away.
+ * - carriers: For each cell, the two carrier cells of each of its bridges.
+ *
  * Methods:
- * - addConnection(Location from, Location to): Adds a bidirectional adjacency
- * relationship between two cell locations.
- * - isAdjacent(Location from, Location to): Returns true if the 'to' Location
- * is adjacent to the 'from' Location.
- * - getAdjacentLocations(Location from): Returns a list of Locations that are
- * adjacent to the 'from' Location.
- * 
+ * - forSize(int size): Returns the shared Connections for a board size.
+ * - neighbours(int cell), bridges(int cell), carriers(int cell): Return the
+ * precomputed tables for a cell. They are shared, so iterating over them
+ * allocates nothing, and callers must not modify them.
+ * - isAdjacent, isBridge, isConnected, getAdjacentLocations and
+ * getBridgedLocations: The same questions asked by Location.
+ *
  * Additional Considerations:
- * - Consider the uniqueness of the hexagonal grid when implementing adjacency.
- * Unlike square grids, hexagonal grids have six neighbors for each cell.
- * - Ensure the adjacencyMap is symmetric; if A is adjacent to B, then B must
- * also be adjacent to A.
+ * - The tables are symmetric; if A is adjacent to B, then B is adjacent to A,
+ * and likewise for bridges.
+ * - Whether a bridge is intact depends on its carriers being empty, which is
+ * up to the board to check.
  */
 
 public class Connections {
-    private Map<Location, List<Location>> adjacencyMap;
-    private int gridHeight;
-    private int gridWidth;
+    public static final int DEFAULT_SIZE = 11;
 
-    public Connections() {
-        adjacencyMap = new HashMap<>();
-    }
+    private static final int[][] NEIGHBOUR_STEPS = { { -1, -1 }, { -1, 0 }, { 0, -1 }, { 0, 1 }, { 1, 0 },
+            { 1, 1 } };
 
-    public void addConnection(Location from, Location to) {
-        adjacencyMap.computeIfAbsent(from, k -> new ArrayList<>()).add(to);
-        adjacencyMap.computeIfAbsent(to, k -> new ArrayList<>()).add(from);
-    }
+    // Each bridge step, followed by the steps to its two carriers
+    private static final int[][] BRIDGE_STEPS = {
+            { -2, -1, -1, -1, -1, 0 }, { -1, -2, -1, -1, 0, -1 }, { -1, 1, -1, 0, 0, 1 },
+            { 1, -1, 0, -1, 1, 0 }, { 1, 2, 0, 1, 1, 1 }, { 2, 1, 1, 0, 1, 1 } };
 
-    public boolean isAdjacent(Location from, Location to) {
-        int dx = Math.abs(from.getCol() - to.getCol());
-        int dy = Math.abs(from.getRow() - to.getRow());
+    private static final ConcurrentHashMap<Integer, Connections> SHARED = new ConcurrentHashMap<>();
 
-        // Directly adjacent vertically (same column)
-        boolean vertical = dx == 0 && dy == 1;
+    private final int size;
+    private final int[][] neighbours;
+    private final int[][] bridges;
+    private final int[][] carriers;
 
-        // Adjacent in the same row or diagonal (for flat-topped)
-        boolean horizontalOrDiagonal = dy == 0 && dx == 1;
-
-        return vertical || horizontalOrDiagonal;
+    // Return the Connections shared by all boards of the given size
+    public static Connections forSize(int size) {
+        return SHARED.computeIfAbsent(size, Connections::new);
     }
 
-    public List<Location> getAdjacentLocations(Location from) {
-        List<Location> adjacentLocations = new ArrayList<>();
-        int[][] directions = {
-                { +1, 0 }, { +1, -1 }, { 0, -1 },
-                { -1, 0 }, { -1, +1 }, { 0, +1 }
-        };
+    // A view of the shared tables for the standard board size
+    public Connections() {
+        this(forSize(DEFAULT_SIZE));
+    }
 
-        for (int[] dir : directions) {
-            int adjQ = from.getCol() + dir[0]; // Adjust column based on direction
-            int adjR = from.getRow() + dir[1]; // Adjust row based on direction
+    private Connections(Connections shared) {
+        size = shared.size;
+        neighbours = shared.neighbours;
+        bridges = shared.bridges;
+        carriers = shared.carriers;
+    }
 
-            // Assuming a method isValidLocation(adjQ, adjR) checks if the location is
-            // within the grid bounds
-            if (isValidLocation(adjQ, adjR)) {
-                adjacentLocations.add(new Location(adjQ, adjR));
+    private Connections(int size) {
+        this.size = size;
+        neighbours = new int[size * size][];
+        bridges = new int[size * size][];
+        carriers = new int[size * size][];
+        int[] found = new int[NEIGHBOUR_STEPS.length];
+        int[] foundCarriers = new int[2 * BRIDGE_STEPS.length];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int count = 0;
+                for (int[] step : NEIGHBOUR_STEPS) {
+                    if (isOnBoard(row + step[0], col + step[1])) {
+                        found[count++] = index(row + step[0], col + step[1]);
+                    }
+                }
+                neighbours[index(row, col)] = java.util.Arrays.copyOf(found, count);
+
+                // Both carriers of a bridge lie between its ends, so they are on
+                // the board whenever the far end is
+                count = 0;
+                for (int[] step : BRIDGE_STEPS) {
+                    if (isOnBoard(row + step[0], col + step[1])) {
+                        foundCarriers[2 * count] = index(row + step[2], col + step[3]);
+                        foundCarriers[2 * count + 1] = index(row + step[4], col + step[5]);
+                        found[count++] = index(row + step[0], col + step[1]);
+                    }
+                }
+                bridges[index(row, col)] = java.util.Arrays.copyOf(found, count);
+                carriers[index(row, col)] = java.util.Arrays.copyOf(foundCarriers, 2 * count);
             }
         }
+    }
 
-        return adjacentLocations;
+    public int getSize() {
+        return size;
     }
 
-    private boolean isValidLocation(int q, int r) {
-        // Implement this method to check if the location is within the grid bounds.
-        // For example:
-        return q >= 0 && q < gridWidth && r >= 0 && r < gridHeight;
+    public int index(int row, int col) {
+        return row * size + col;
     }
 
-    /**
-     * Determines if a "bridge" exists between two given cell locations on the
-     * Beehive game board.
-     * A bridge in the Beehive game represents a special type of connection that
-     * allows players to
-     * extend their reach beyond directly adjacent cells, following specific game
-     * rules.
-     *
-     * The concept of a bridge is central to adding strategic depth to the game,
-     * allowing players
-     * to form connections between cells that are not directly adjacent but can be
-     * "leapt" over
-     * according to certain conditions. This method must carefully evaluate the
-     * positions of the
-     * two cells in question and the state of any intermediary cells to determine if
-     * a valid bridge
-     * exists according to the rules.
-     *
-     * Parameters:
-     * 
-     * @param from The starting Location of the potential bridge. This location must
-     *             contain a cell
-     *             belonging to the current player.
-     * @param to   The ending Location of the potential bridge. Like the starting
-     *             location, this must
-     *             also be occupied by the current player's cell.
-     * 
-     *             Returns:
-     * @return boolean True if a valid bridge exists between the 'from' and 'to'
-     *         locations,
-     *         false otherwise.
-     *
-     *         Logic:
-     *         1. Determine the linear distance and direction between the 'from' and
-     *         'to' locations.
-     *         Bridges can only form in straight lines on the hexagonal grid.
-     *         2. Check the intermediary cells (those that lie on the line between
-     *         'from' and 'to') for
-     *         their occupancy state. A bridge is typically considered valid if
-     *         these cells are empty,
-     *         allowing for a "leap" over them.
-     *         3. Evaluate any game-specific conditions for bridge formation. For
-     *         example, the game might
-     *         require that only certain cells can serve as bridge endpoints, or
-     *         there may be restrictions
-     *         based on the current state of the game (e.g., bridges cannot form
-     *         over cells containing
-     *         certain types of pieces).
-     *         4. Return true if all conditions for a bridge are met, indicating
-     *         that the 'from' and 'to'
-     *         locations are connected by a bridge. Otherwise, return false.
-     *
-     *         Usage:
-     *         This method is utilized in the gameplay logic to check for player
-     *         moves that attempt to
-     *         establish a bridge, as well as in the evaluation of game state for
-     *         win conditions or strategic
-     *         advantages. Implementing efficient and accurate bridge detection is
-     *         critical for ensuring
-     *         fair play and the integrity of the game's strategic elements.
-     *
-     *         Note: The exact implementation details and conditions for bridge
-     *         formation should be adapted
-     *         to fit the specific rules and mechanics of the Beehive game as
-     *         defined by its designers.
-     */
-    public boolean isBridge(Location cell, Location other) {
-        // Check if the two locations are aligned either vertically, horizontally, or
-        // diagonally
-        int dx = other.getCol() - cell.getCol();
-        int dy = other.getRow() - cell.getRow();
+    // The interned Location of a cell index
+    public Location location(int cell) {
+        return Location.of(cell / size, cell % size);
+    }
 
-        // Normalize dx and dy for direction checking
-        int dirX = Integer.compare(dx, 0);
-        int dirY = Integer.compare(dy, 0);
+    public boolean isOnBoard(int row, int col) {
+        return row >= 0 && row < size && col >= 0 && col < size;
+    }
 
-        // Check if the cells are aligned either vertically, horizontally, or diagonally
-        // and there's exactly one cell space between them
-        if (Math.abs(dx) == 2 || Math.abs(dy) == 2) {
-            // Calculate midpoints based on the direction
-            // Adjust these calculations based on your game's grid and rules
-            int midX = cell.getCol() + dirX;
-            int midY = cell.getRow() + dirY;
-            Location midLoc = new Location(midX, midY);
+    // Indices of the cells adjacent to cell
+    public int[] neighbours(int cell) {
+        return neighbours[cell];
+    }
 
-            // Assume the mid-cell for a potential bridge needs to be empty
-            return adjacencyMap.get(midLoc) == null || adjacencyMap.get(midLoc).isEmpty(); // Check if the midLoc is
-                                                                                           // empty
-        }
+    // Indices of the cells a bridge away from cell
+    public int[] bridges(int cell) {
+        return bridges[cell];
+    }
 
-        return false;
+    // The carriers of each bridge of cell: those of bridges(cell)[i] are at
+    // 2 * i and 2 * i + 1
+    public int[] carriers(int cell) {
+        return carriers[cell];
+    }
+
+    /**
+     * @deprecated Adjacency is fixed by the board geometry, so this does
+     *             nothing.
+     */
+    @Deprecated
+    public void addConnection(Location from, Location to) {
     }
 
+    /**
+     * @deprecated Bridges are fixed by the board geometry, so this does
+     *             nothing.
+     */
+    @Deprecated
     public void addBridge(Location cell, Location other) {
-        if (!isBridge(cell, other)) {
-            throw new IllegalArgumentException("The two locations do not form a bridge");
-        }
+    }
 
-        // Add the 'other' location to the 'cell' location's list of bridged locations
-        List<Location> cellBridgedLocations = adjacencyMap.get(cell);
-        if (cellBridgedLocations == null) {
-            cellBridgedLocations = new ArrayList<>();
-            adjacencyMap.put(cell, cellBridgedLocations);
-        }
-        cellBridgedLocations.add(other);
+    public boolean isAdjacent(Location from, Location to) {
+        return contains(neighbours, from, to);
+    }
 
-        // Add the 'cell' location to the 'other' location's list of bridged locations
-        List<Location> otherBridgedLocations = adjacencyMap.get(other);
-        if (otherBridgedLocations == null) {
-            otherBridgedLocations = new ArrayList<>();
-            adjacencyMap.put(other, otherBridgedLocations);
-        }
-        otherBridgedLocations.add(cell);
+    // Whether cell and other are a bridge apart. Whether the bridge's carriers
+    // are empty is not considered.
+    public boolean isBridge(Location cell, Location other) {
+        return contains(bridges, cell, other);
     }
 
     public boolean isConnected(Location from, Location to) {
-        if (isAdjacent(from, to)) {
-            return true;
-        }
+        return isAdjacent(from, to) || isBridge(from, to);
+    }
 
-        // Check if the two locations are connected through a bridge
-        if (isBridge(from, to)) {
-            return true;
+    public List<Location> getAdjacentLocations(Location from) {
+        List<Location> adjacentLocations = new ArrayList<>();
+        if (isOnBoard(from.getRow(), from.getCol())) {
+            for (int cell : neighbours[index(from.getRow(), from.getCol())]) {
+                adjacentLocations.add(location(cell));
+            }
         }
-
-        // If the code reaches this point, the two locations are not connected
-        return false;
+        return adjacentLocations;
     }
 
+    // Return the two carriers of the bridge between cell and other, or no
+    // locations if they are not a bridge apart
     public Location[] getBridgedLocations(Location cell, Location other) {
-        List<Location> bridgedLocations = new ArrayList<>();
-
-        // Based on your definition, let's check for a straight line bridge.
-        // This assumes bridges can be formed in straight lines either vertically,
-        // horizontally, or in diagonal lines. Adjust logic as per your game rules.
-
-        int dx = other.getCol() - cell.getCol();
-        int dy = other.getRow() - cell.getRow();
-
-        // Normalize dx and dy for direction checking
-        int dirX = Integer.compare(dx, 0);
-        int dirY = Integer.compare(dy, 0);
-
-        // Check if the cells are aligned either vertically, horizontally, or diagonally
-        // and there's exactly one cell space between them
-        if (Math.abs(dx) <= 2 && Math.abs(dy) <= 2 && !(dx == 0 && dy == 0)) {
-            // Calculate midpoints based on the direction
-            // Adjust these calculations based on your game's grid and rules
-            if (Math.abs(dx) == 2 || Math.abs(dy) == 2) {
-                // Assume the mid-cell for a potential bridge needs to be empty
-                int midX1 = cell.getCol() + dirX;
-                int midY1 = cell.getRow() + dirY;
-                Location midLoc1 = new Location(midX1, midY1);
-
-                int midX2 = midX1 + dirX; // For cases where you check the second cell in the same direction
-                int midY2 = midY1 + dirY;
-                Location midLoc2 = (Math.abs(dx) == 2 && Math.abs(dy) == 2) ? new Location(midX2, midY2) : midLoc1;
-
-                if (midLoc1.isEmpty() && (midLoc2.isEmpty() || midLoc1.equals(midLoc2))) { // Assuming Location has an
-                                                                                           // isEmpty method
-                    bridgedLocations.add(midLoc1);
-                    if (!midLoc1.equals(midLoc2)) {
-                        bridgedLocations.add(midLoc2);
-                    }
+        if (isOnBoard(cell.getRow(), cell.getCol()) && isOnBoard(other.getRow(), other.getCol())) {
+            int from = index(cell.getRow(), cell.getCol());
+            int to = index(other.getRow(), other.getCol());
+            int[] partners = bridges[from];
+            for (int i = 0; i < partners.length; i++) {
+                if (partners[i] == to) {
+                    int first = carriers[from][2 * i];
+                    int second = carriers[from][2 * i + 1];
+                    return new Location[] { location(first), location(second) };
                 }
             }
         }
-
-        // Convert the list to an array before returning
-        return bridgedLocations.toArray(new Location[0]);
+        return new Location[0];
     }
 
-    // junit test for is bridge
-    public static void main(String[] args) {
-
-        Connections connections = new Connections();
-        Location cell = new Location(1, 1);
-        Location other = new Location(3, 1);
-
-        // Add the necessary cells to form a bridge
-        connections.addConnection(new Location(1, 1), new Location(2, 1));
-        connections.addConnection(new Location(2, 1), new Location(3, 1));
-
-        // Test the isBridge method
-        System.out.println(connections.isBridge(cell, other)); // Expected: true
-
-        // Test with locations that do not form a bridge
-        Location cell2 = new Location(0, 0);
-        Location other2 = new Location(11, 2);
-        System.out.println(connections.isBridge(cell2, other2)); // Expected: false
+    private boolean contains(int[][] table, Location from, Location to) {
+        if (!isOnBoard(from.getRow(), from.getCol()) || !isOnBoard(to.getRow(), to.getCol())) {
+            return false;
+        }
+        int target = index(to.getRow(), to.getCol());
+        for (int cell : table[index(from.getRow(), from.getCol())]) {
+            if (cell == target) {
+                return true;
+            }
+        }
+        return false;
     }
-
 }
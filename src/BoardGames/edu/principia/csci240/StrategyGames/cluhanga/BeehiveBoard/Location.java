@@ -19,8 +19,7 @@ package boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard;
  * bridging positions which are critical for game logic related to move
  * validation and
  * win condition checking.
- * - The class should be designed to easily integrate with the Cell class and
- * any
+ * - The class should be designed to easily integrate with the board and any
  * game logic requiring positional calculations.
  * 
  * Member Variables:
@@ -30,9 +29,13 @@ package boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard;
  * 
  * Constructor:
  * - Accepts row and column parameters to initialize a Location instance.
+ * - Location.of(row, col) returns a shared, interned instance instead, for
+ * every location a board move can name (rows and columns 0 to 15), so looking
+ * up a Location allocates nothing. Boards work with int cell indices
+ * internally and use interned Locations only in their public API.
  * 
  * Methods:
- * - equals(Location other): Determines if this Location is equal to another,
+ * - equals(Object other): Determines if this Location is equal to another,
  * based on row and column values.
  * - hashCode(): Generates a hash code for a Location, ensuring that Locations
  * with the same row and column have the same hash code (important for use in
@@ -66,18 +69,47 @@ package boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard;
  */
 
 public class Location {
-    private int row;
-    private int col;
+    // Moves store rows and columns in 4 bits, so no board is larger than this
+    private static final int INTERNED_SIZE = 16;
+    private static final Location[] INTERNED = new Location[INTERNED_SIZE * INTERNED_SIZE];
+    static {
+        for (int row = 0; row < INTERNED_SIZE; row++) {
+            for (int col = 0; col < INTERNED_SIZE; col++) {
+                INTERNED[row * INTERNED_SIZE + col] = new Location(row, col);
+            }
+        }
+    }
+
+    private final int row;
+    private final int col;
 
     public Location(int row, int col) {
         this.row = row;
         this.col = col;
     }
 
-    public boolean equals(Location other) {
+    // Return the shared Location for (row, col), or a new one if it is outside
+    // the interned range
+    public static Location of(int row, int col) {
+        if (row >= 0 && row < INTERNED_SIZE && col >= 0 && col < INTERNED_SIZE) {
+            return INTERNED[row * INTERNED_SIZE + col];
+        }
+        return new Location(row, col);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Location)) {
+            return false;
+        }
+        Location other = (Location) obj;
         return this.row == other.row && this.col == other.col;
     }
 
+    @Override
     public int hashCode() {
         return row * 31 + col;
     }
@@ -86,9 +118,10 @@ public class Location {
         int dx = other.col - this.col;
         int dy = other.row - this.row;
 
-        // Check for adjacency based on the hexagonal grid geometry
+        // Check for adjacency based on the hexagonal grid geometry, as in
+        // Connections
         return (dx == 0 && Math.abs(dy) == 1) || (dy == 0 && Math.abs(dx) == 1)
-                || (dx == -1 && dy == 1) || (dx == 1 && dy == -1);
+                || (dx == 1 && dy == 1) || (dx == -1 && dy == -1);
     }
 
     public double calculateDistance(Location other) {
@@ -0,0 +1,38 @@
+package boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationTest {
+    @Test
+    void testInternedLocations() {
+        assertSame(Location.of(3, 7), Location.of(3, 7));
+        assertSame(Location.of(3, 7), Connections.forSize(11).location(3 * 11 + 7));
+        assertEquals(new Location(20, 20), Location.of(20, 20));
+    }
+
+    @Test
+    void testSetsDeduplicate() {
+        Set<Location> locations = new HashSet<>();
+        locations.add(new Location(1, 2));
+        locations.add(new Location(1, 2));
+        locations.add(Location.of(1, 2));
+        assertEquals(1, locations.size());
+        assertTrue(locations.contains(new Location(1, 2)));
+        assertNotEquals(new Location(1, 2), new Location(2, 1));
+    }
+
+    @Test
+    void testAdjacencyMatchesConnections() {
+        Connections connections = Connections.forSize(11);
+        for (int cell = 0; cell < 121; cell++) {
+            for (int other = 0; other < 121; other++) {
+                assertEquals(connections.isAdjacent(connections.location(cell), connections.location(other)),
+                        connections.location(cell).isAdjacent(connections.location(other)));
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package boardgames.edu.principia.csci240.strategygames.cluhanga.BeehiveBoard;
+
+/**
+ * Union-find over the integers 0 to n - 1 whose unions can be undone in
+ * reverse order, for keeping the groups of a board that moves are applied to
+ * and retracted from.
+ *
+ * checkpoint() marks the current state and rollback() returns to the most
+ * recent mark, undoing every union since. Each union logs the root it attached,
+ * so rolling back costs one step per union undone. Rollback rules out path
+ * compression, but union by size keeps every tree O(log n) deep, so find is
+ * O(log n). All storage is allocated up front.
+ */
+public class RollbackUnionFind {
+    private final int[] parent;
+    private final int[] size;
+
+    // Roots attached by unions, oldest first; at most n - 1 at a time
+    private final int[] log;
+    private int logSize;
+
+    // logSize at each checkpoint
+    private int[] checkpoints;
+    private int checkpointCount;
+
+    public RollbackUnionFind(int n) {
+        parent = new int[n];
+        size = new int[n];
+        log = new int[n];
+        checkpoints = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+    }
+
+    // An independent copy of other, with the same sets and checkpoints
+    public RollbackUnionFind(RollbackUnionFind other) {
+        parent = other.parent.clone();
+        size = other.size.clone();
+        log = other.log.clone();
+        logSize = other.logSize;
+        checkpoints = other.checkpoints.clone();
+        checkpointCount = other.checkpointCount;
+    }
+
+    public int find(int x) {
+        while (parent[x] != x) {
+            x = parent[x];
+        }
+        return x;
+    }
+
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    // Number of elements in x's set
+    public int size(int x) {
+        return size[find(x)];
+    }
+
+    // Merge the sets of a and b, returning false if they were already one set
+    public boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+        if (size[rootA] < size[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        log[logSize++] = rootB;
+        return true;
+    }
+
+    public void checkpoint() {
+        if (checkpointCount == checkpoints.length) {
+            checkpoints = java.util.Arrays.copyOf(checkpoints, 2 * checkpointCount);
+        }
+        checkpoints[checkpointCount++] = logSize;
+    }
+
+    // Undo every union since the last checkpoint, and drop that checkpoint
+    public void rollback() {
+        int mark = checkpoints[--checkpointCount];
+        while (logSize > mark) {
+            int child = log[--logSize];
+            size[parent[child]] -= size[child];
+            parent[child] = child;
+        }
+    }
+}
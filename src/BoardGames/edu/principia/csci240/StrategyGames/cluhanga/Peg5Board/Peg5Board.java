@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import boardgames.edu.principia.csci240.strategygames.Board;
+import boardgames.edu.principia.csci240.strategygames.Zobrist;
 
 public class Peg5Board implements Board {
     public class Peg5Move implements Board.Move {
@@ -51,8 +52,34 @@ public class Peg5Board implements Board {
 
     }
 
+    private static final int SIZE = 7;
+    private static final long[][] ZOBRIST = Zobrist.keys(SIZE * SIZE, 0x9E65L);
+
     private int currentPlayer = Board.PLAYER_1;
     private List<Peg5Move> moveHistory = new ArrayList<>();
+    private long hash;
+
+    public Peg5Board() {
+    }
+
+    // Copy other's state. Peg5Moves can be changed by read, so each move in the
+    // history is copied too.
+    private Peg5Board(Peg5Board other) {
+        currentPlayer = other.currentPlayer;
+        hash = other.hash;
+        for (Peg5Move move : other.moveHistory) {
+            Peg5Move copy = new Peg5Move();
+            copy.from = move.from == null ? null : new Position(move.from.getRow(), move.from.getColumn());
+            copy.to = move.to == null ? null : new Position(move.to.getRow(), move.to.getColumn());
+            copy.pieceType = move.pieceType;
+            moveHistory.add(copy);
+        }
+    }
+
+    @Override
+    public Peg5Board copy() {
+        return new Peg5Board(this);
+    }
 
     // Assuming a 7x7 board for Peg5
     @Override
@@ -69,9 +96,21 @@ public class Peg5Board implements Board {
         // Apply the move to the board, e.g., update the board array
         // Validate the move and update moveHistory and currentPlayer as needed
         moveHistory.add(move);
+        hash ^= moveKey(move, currentPlayer);
         switchPlayer();
     }
 
+    // Zobrist key for the piece a move places, by destination and player. Moves
+    // without a destination on the board contribute nothing.
+    private long moveKey(Peg5Move move, int player) {
+        Position to = move.to;
+        if (to != null && to.getRow() >= 0 && to.getRow() < SIZE && to.getColumn() >= 0
+                && to.getColumn() < SIZE) {
+            return ZOBRIST[to.getRow() * SIZE + to.getColumn()][Zobrist.side(player)];
+        }
+        return 0L;
+    }
+
     @Override
     public int getValue() {
         // Implementation depends on Peg5 game logic for evaluating the board state
@@ -99,13 +138,20 @@ public class Peg5Board implements Board {
     @Override
     public void undoMove() {
         if (!moveHistory.isEmpty()) {
-            moveHistory.remove(moveHistory.size() - 1);
+            Peg5Move move = moveHistory.remove(moveHistory.size() - 1);
             switchPlayer();
+            hash ^= moveKey(move, currentPlayer);
         }
     }
 
+    @Override
+    public long getHash() {
+        return hash;
+    }
+
     public void switchPlayer() {
         currentPlayer = -currentPlayer; // Toggle between PLAYER_0 and PLAYER_1
+        hash ^= Zobrist.SIDE_TO_MOVE;
     }
 
     public Integer[][] getBoard() {
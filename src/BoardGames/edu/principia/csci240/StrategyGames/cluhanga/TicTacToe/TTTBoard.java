@@ -6,6 +6,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import boardgames.edu.principia.csci240.strategygames.Board;
+import boardgames.edu.principia.csci240.strategygames.Tablebase;
+import boardgames.edu.principia.csci240.strategygames.Zobrist;
 
 public class TTTBoard implements Board {
     public class TicTacToeMove implements Move, java.io.Serializable {
@@ -75,6 +77,11 @@ public class TTTBoard implements Board {
             return row == other.row && col == other.col;
         }
 
+        @Override
+        public int hashCode() {
+            return row * SIZE + col;
+        }
+
         @Override
         public String toString() {
             return (row + 1) + "," + (col + 1);
@@ -82,16 +89,63 @@ public class TTTBoard implements Board {
 
     }
 
-    private int[][] board;
-    private int currentPlayer; // PLAYER_X or PLAYER_O
-    private List<TicTacToeMove> moveHistory;
     private static final int SIZE = 3;
+
+    // The state is kept in flat arrays, so that copy() is a few array copies:
+    // each cell's player or EMPTY, indexed by row * SIZE + col, and the cells
+    // played, in order
+    private final int[] cells = new int[SIZE * SIZE];
+    private final int[] history = new int[SIZE * SIZE];
+    private int moveCount;
+    private int currentPlayer; // PLAYER_X or PLAYER_O
+    private long hash;
+    private int code; // Base-3 position code, as indexed by TTTTablebase
     private static final int EMPTY = 0;
+    private static final long[][] ZOBRIST = Zobrist.keys(SIZE * SIZE, 0x7474L);
+    static final int[] POWERS_OF_3 = { 1, 3, 9, 27, 81, 243, 729, 2187, 6561 };
+
+    // Sum of each line's cells (PLAYER_1 is 1, PLAYER_2 is -1), kept up to date
+    // by applyMove and undoMove: the rows, then the columns, then the diagonal
+    // through (0, 0) and the one through (0, SIZE - 1)
+    private final int[] lineSums = new int[2 * SIZE + 2];
+    private static final int DIAGONAL = 2 * SIZE;
+    private static final int ANTI_DIAGONAL = 2 * SIZE + 1;
+    private static final int[][] CELL_LINES = new int[SIZE * SIZE][];
+    static {
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                int[] lines = new int[4];
+                int count = 0;
+                lines[count++] = row;
+                lines[count++] = SIZE + col;
+                if (row == col) {
+                    lines[count++] = DIAGONAL;
+                }
+                if (row + col == SIZE - 1) {
+                    lines[count++] = ANTI_DIAGONAL;
+                }
+                CELL_LINES[row * SIZE + col] = java.util.Arrays.copyOf(lines, count);
+            }
+        }
+    }
 
     public TTTBoard() {
-        board = new int[SIZE][SIZE];
         currentPlayer = PLAYER_1;
-        moveHistory = new ArrayList<>();
+    }
+
+    private TTTBoard(TTTBoard other) {
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+        System.arraycopy(other.history, 0, history, 0, other.moveCount);
+        System.arraycopy(other.lineSums, 0, lineSums, 0, lineSums.length);
+        moveCount = other.moveCount;
+        currentPlayer = other.currentPlayer;
+        hash = other.hash;
+        code = other.code;
+    }
+
+    @Override
+    public TTTBoard copy() {
+        return new TTTBoard(this);
     }
 
     @Override
@@ -105,12 +159,38 @@ public class TTTBoard implements Board {
         if (move.row < 0 || move.row >= SIZE || move.col < 0 || move.col >= SIZE) {
             throw new InvalidMoveException("Invalid move! Out of bounds");
         }
-        if (board[move.row][move.col] != EMPTY) {
+        applyMove(move.row * SIZE + move.col);
+    }
+
+    // Moves are encoded as their cell, row * SIZE + col
+    @Override
+    public void applyMove(int cell) throws InvalidMoveException {
+        if (cell < 0 || cell >= SIZE * SIZE) {
+            throw new InvalidMoveException("Invalid move! Out of bounds");
+        }
+        if (cells[cell] != EMPTY) {
             throw new InvalidMoveException("Cell is already occupied");
         }
-        board[move.row][move.col] = currentPlayer;
+        place(cell);
+    }
+
+    @Override
+    public void applyTrustedMove(int cell) {
+        assert cell >= 0 && cell < SIZE * SIZE && cells[cell] == EMPTY
+                : "Invalid trusted move " + cell;
+        place(cell);
+    }
+
+    // Place the current player's stone on an empty cell
+    private void place(int cell) {
+        cells[cell] = currentPlayer;
+        hash ^= ZOBRIST[cell][Zobrist.side(currentPlayer)] ^ Zobrist.SIDE_TO_MOVE;
+        code += POWERS_OF_3[cell] * digit(currentPlayer);
+        for (int line : CELL_LINES[cell]) {
+            lineSums[line] += currentPlayer;
+        }
         currentPlayer *= -1;
-        moveHistory.add(new TicTacToeMove(move.row + 1, move.col + 1));
+        history[moveCount++] = cell;
     }
 
     // Return the current state of the game
@@ -130,8 +210,49 @@ public class TTTBoard implements Board {
     // for use with AI to determine best move
     // name variables properly and use constants for magic numbers
     // check for wins and draw before returning value
+    //
+    // The value is computed from the line sums kept by applyMove and undoMove,
+    // so it takes constant time. With assertions enabled it is checked against
+    // a full recompute from the cells.
     @Override
     public int getValue() {
+        int value = lineValue();
+        assert value == computeValue() : "Incremental value " + value + " != " + computeValue() + "\n" + this;
+        return value;
+    }
+
+    // The value from the maintained line sums, by the same rules as computeValue
+    private int lineValue() {
+        int diagSum1 = lineSums[DIAGONAL];
+        int diagSum2 = lineSums[ANTI_DIAGONAL];
+        for (int i = 0; i < SIZE; i++) {
+            if (lineSums[i] == SIZE || lineSums[SIZE + i] == SIZE || diagSum1 == SIZE || diagSum2 == SIZE) {
+                return WIN;
+            } else if (lineSums[i] == -SIZE || lineSums[SIZE + i] == -SIZE || diagSum1 == -SIZE
+                    || diagSum2 == -SIZE) {
+                return -WIN;
+            }
+        }
+        if (moveCount == SIZE * SIZE) {
+            return 0;
+        }
+
+        int value = 0;
+        int oneWay = SIZE - 1;
+        for (int i = 0; i < SIZE; i++) {
+            if (lineSums[i] == oneWay || lineSums[SIZE + i] == oneWay || diagSum1 == oneWay
+                    || diagSum2 == oneWay) {
+                value++;
+            } else if (lineSums[i] == -oneWay || lineSums[SIZE + i] == -oneWay || diagSum1 == -oneWay
+                    || diagSum2 == -oneWay) {
+                value--;
+            }
+        }
+        return value;
+    }
+
+    // The value recomputed from scratch by summing every line of the board
+    int computeValue() {
         int value = 0;
         int[] rowSum = new int[SIZE];
         int[] colSum = new int[SIZE];
@@ -139,13 +260,14 @@ public class TTTBoard implements Board {
         int diagSum2 = 0;
         for (int row = 0; row < SIZE; row++) {
             for (int col = 0; col < SIZE; col++) {
-                rowSum[row] += board[row][col];
-                colSum[col] += board[row][col];
+                int cell = cells[row * SIZE + col];
+                rowSum[row] += cell;
+                colSum[col] += cell;
                 if (row == col) {
-                    diagSum1 += board[row][col];
+                    diagSum1 += cell;
                 }
                 if (row + col == SIZE - 1) {
-                    diagSum2 += board[row][col];
+                    diagSum2 += cell;
                 }
             }
         }
@@ -162,7 +284,7 @@ public class TTTBoard implements Board {
         }
 
         // check for draw
-        if (moveHistory.size() == SIZE * SIZE) {
+        if (moveCount == SIZE * SIZE) {
             return 0;
         }
 
@@ -184,16 +306,85 @@ public class TTTBoard implements Board {
     @Override
     public List<TicTacToeMove> getValidMoves() {
         List<TicTacToeMove> validMoves = new ArrayList<>();
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                if (board[row][col] == EMPTY) {
-                    validMoves.add(new TicTacToeMove(row + 1, col + 1)); // Adjust for 1-based indexing
-                }
+        for (int cell = 0; cell < SIZE * SIZE; cell++) {
+            if (cells[cell] == EMPTY) {
+                validMoves.add(moveAt(cell));
             }
         }
         return validMoves;
     }
 
+    @Override
+    public int getValidMoves(int[] moves) {
+        int count = SIZE * SIZE - moveCount;
+        if (count > moves.length) {
+            return count;
+        }
+        int n = 0;
+        for (int cell = 0; cell < SIZE * SIZE; cell++) {
+            if (cells[cell] == EMPTY) {
+                moves[n++] = cell;
+            }
+        }
+        return n;
+    }
+
+    // Moves come in two stages: the cells completing a line of two, which win
+    // or block a win, then the rest
+    @Override
+    public int getMoveStages() {
+        return 2;
+    }
+
+    @Override
+    public int getValidMoves(int stage, int[] moves) {
+        if (stage > 1) {
+            return 0;
+        }
+        int n = 0;
+        for (int cell = 0; cell < SIZE * SIZE; cell++) {
+            if (cells[cell] == EMPTY && completesLine(cell) == (stage == 0)) {
+                if (n < moves.length) {
+                    moves[n] = cell;
+                }
+                n++;
+            }
+        }
+        return n;
+    }
+
+    // Whether the empty cell is the last of a line whose other cells are all
+    // one player's
+    private boolean completesLine(int cell) {
+        for (int line : CELL_LINES[cell]) {
+            if (Math.abs(lineSums[line]) == SIZE - 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int encodeMove(Move m) {
+        TicTacToeMove move = (TicTacToeMove) m;
+        if (move.row < 0 || move.row >= SIZE || move.col < 0 || move.col >= SIZE) {
+            return -1;
+        }
+        return move.row * SIZE + move.col;
+    }
+
+    @Override
+    public TicTacToeMove decodeMove(int cell) {
+        return cell >= 0 && cell < SIZE * SIZE ? moveAt(cell) : null;
+    }
+
+    // A new move placing a stone on the given cell. Moves are made afresh each
+    // time they are handed out, as their row and col are public and so could
+    // not be shared safely; the search works on int moves and never needs them.
+    private TicTacToeMove moveAt(int cell) {
+        return new TicTacToeMove(cell / SIZE + 1, cell % SIZE + 1);
+    }
+
     @Override
     public int getCurrentPlayer() {
         return currentPlayer;
@@ -201,30 +392,57 @@ public class TTTBoard implements Board {
 
     @Override
     public List<TicTacToeMove> getMoveHistory() {
-        return new ArrayList<>(moveHistory);
+        List<TicTacToeMove> moves = new ArrayList<>(moveCount);
+        for (int i = 0; i < moveCount; i++) {
+            moves.add(moveAt(history[i]));
+        }
+        return moves;
     }
 
     @Override
     public void undoMove() {
-        if (!moveHistory.isEmpty()) {
-            TicTacToeMove lastMove = moveHistory.remove(moveHistory.size() - 1);
-            int row = lastMove.row;
-            int col = lastMove.col;
-            if (row >= 0 && row < SIZE && col >= 0 && col < SIZE) {
-                board[row][col] = EMPTY;
-                currentPlayer = -currentPlayer;
+        if (moveCount > 0) {
+            int cell = history[--moveCount];
+            cells[cell] = EMPTY;
+            currentPlayer = -currentPlayer;
+            hash ^= ZOBRIST[cell][Zobrist.side(currentPlayer)] ^ Zobrist.SIDE_TO_MOVE;
+            code -= POWERS_OF_3[cell] * digit(currentPlayer);
+            for (int line : CELL_LINES[cell]) {
+                lineSums[line] -= currentPlayer;
             }
         }
     }
 
+    @Override
+    public long getHash() {
+        return hash;
+    }
+
+    // Return the position as a base-3 number whose digit for cell
+    // row * SIZE + col is 0 if the cell is empty, 1 for X and 2 for O. Every
+    // position has its own code below 3^9.
+    public int getCode() {
+        return code;
+    }
+
+    // The code digit for a cell held by player
+    static int digit(int player) {
+        return player == PLAYER_1 ? 1 : 2;
+    }
+
+    @Override
+    public Tablebase getTablebase() {
+        return TTTTablebase.getDefault();
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         for (int row = 0; row < SIZE; row++) {
             for (int col = 0; col < SIZE; col++) {
-                if (board[row][col] == PLAYER_1) {
+                if (cells[row * SIZE + col] == PLAYER_1) {
                     sb.append('X');
-                } else if (board[row][col] == PLAYER_2) {
+                } else if (cells[row * SIZE + col] == PLAYER_2) {
                     sb.append('O');
                 } else {
                     sb.append(' ');
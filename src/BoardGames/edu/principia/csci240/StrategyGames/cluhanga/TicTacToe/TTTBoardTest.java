@@ -2,7 +2,94 @@ package boardgames.edu.principia.csci240.strategygames.cluhanga.tictactoe;
 
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import boardgames.edu.principia.csci240.strategygames.Board;
 
 public class TTTBoardTest {
+    private static void play(TTTBoard board, String... moves) throws Exception {
+        for (String text : moves) {
+            TTTBoard.TicTacToeMove move = (TTTBoard.TicTacToeMove) board.createMove();
+            move.fromString(text);
+            board.applyMove(move);
+        }
+    }
+
+    @Test
+    public void testHashIgnoresMoveOrder() throws Exception {
+        TTTBoard first = new TTTBoard();
+        TTTBoard second = new TTTBoard();
+        play(first, "1,1", "2,2", "3,3");
+        play(second, "3,3", "2,2", "1,1");
+        assertEquals(first.getHash(), second.getHash());
+
+        TTTBoard swapped = new TTTBoard();
+        play(swapped, "2,2", "1,1", "3,3");
+        assertNotEquals(first.getHash(), swapped.getHash());
+    }
+
+    @Test
+    public void testUndoRestoresHash() throws Exception {
+        TTTBoard board = new TTTBoard();
+        long start = board.getHash();
+        play(board, "1,2", "3,1");
+        board.undoMove();
+        board.undoMove();
+        assertEquals(start, board.getHash());
+    }
+
+    @Test
+    public void testCopyIsIndependent() throws Exception {
+        TTTBoard board = new TTTBoard();
+        play(board, "2,2", "1,1", "1,3");
+        TTTBoard copy = board.copy();
+        assertEquals(board.getHash(), copy.getHash());
+        assertEquals(board.getCode(), copy.getCode());
+        assertEquals(board.getValue(), copy.getValue());
+        assertEquals(board.getMoveHistory(), copy.getMoveHistory());
+
+        play(copy, "3,2", "3,1");
+        assertEquals(Board.WIN, copy.getValue());
+        assertEquals(3, board.getMoveHistory().size());
+        assertNotEquals(Board.WIN, board.getValue());
+        for (int i = 0; i < 5; i++) {
+            copy.undoMove();
+        }
+        assertEquals(new TTTBoard().getHash(), copy.getHash());
+        assertEquals(3, board.getMoveHistory().size());
+    }
+
+    @Test
+    public void testCallersOwnTheMovesTheyAreGiven() throws Exception {
+        TTTBoard board = new TTTBoard();
+        play(board, "1,1");
+        TTTBoard copy = board.copy();
+        board.getValidMoves().get(0).fromString("3,3");
+        board.getMoveHistory().get(0).row = 2;
+        assertEquals("1,2", board.getValidMoves().get(0).toString());
+        assertEquals("1,2", copy.getValidMoves().get(0).toString());
+        assertEquals("1,1", copy.getMoveHistory().get(0).toString());
+        assertEquals("1,2", board.decodeMove(1).toString());
+    }
+
+    @Test
+    public void testIncrementalValueMatchesRecompute() throws Exception {
+        TTTBoard board = new TTTBoard();
+        // Moves are generated until the board is full, so this is every
+        // sequence of 0 to 9 distinct cells
+        assertEquals(986410, visit(board));
+    }
 
-}
\ No newline at end of file
+    // Compare getValue against a recompute in every position reachable from
+    // board, applying and undoing moves, and return the number of positions
+    private static int visit(TTTBoard board) throws Exception {
+        assertEquals(board.computeValue(), board.getValue());
+        int positions = 1;
+        for (TTTBoard.TicTacToeMove move : board.getValidMoves()) {
+            board.applyMove(move);
+            positions += visit(board);
+            board.undoMove();
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,300 @@
+package boardgames.edu.principia.csci240.strategygames.cluhanga.tictactoe;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+
+import boardgames.edu.principia.csci240.strategygames.AiSolver;
+import boardgames.edu.principia.csci240.strategygames.Board;
+import boardgames.edu.principia.csci240.strategygames.Tablebase;
+
+// Perfect-play results for every legal tic-tac-toe position, indexed by
+// TTTBoard.getCode(), so that solving a position is a single array lookup.
+// The table is built by retrograde analysis: starting from the won positions,
+// results are propagated backwards to the positions that lead to them, so each
+// position is solved once instead of once per line of play reaching it.
+//
+// Each entry is one byte holding the result for the player to move in its
+// high bits and the cell of a best move in its low 4 bits. Wins take the
+// fastest route, and lost positions the slowest.
+public class TTTTablebase implements Tablebase {
+    public static final int POSITIONS = 19683; // 3^9 position codes
+    public static final String RESOURCE = "tttboard.tablebase";
+
+    // Results, for the player to move
+    static final int UNREACHABLE = 0;
+    static final int WIN = 1;
+    static final int LOSS = 2;
+    static final int DRAW = 3;
+    static final int NO_MOVE = 0xF; // The game is over
+
+    // File header: magic "TTTB", version and entry count, followed by the
+    // entries and a CRC32 of them
+    private static final int MAGIC = 0x54545442;
+    private static final int VERSION = 1;
+
+    private static final int CELLS = 9;
+    private static final int[][] LINES = { { 0, 1, 2 }, { 3, 4, 5 }, { 6, 7, 8 }, { 0, 3, 6 }, { 1, 4, 7 },
+            { 2, 5, 8 }, { 0, 4, 8 }, { 2, 4, 6 } };
+
+    private static TTTTablebase defaultTable;
+
+    private final byte[] entries;
+
+    private TTTTablebase(byte[] entries) {
+        this.entries = entries;
+    }
+
+    // Return the shared table, read from the RESOURCE file next to this class
+    // if it is on the classpath and generated otherwise.
+    public static synchronized TTTTablebase getDefault() {
+        if (defaultTable == null) {
+            try (InputStream is = TTTTablebase.class.getResourceAsStream(RESOURCE)) {
+                if (is != null) {
+                    defaultTable = read(is);
+                }
+            } catch (IOException e) {
+                System.err.println("Cannot read " + RESOURCE + ", generating it: " + e.getMessage());
+            }
+            if (defaultTable == null) {
+                defaultTable = generate();
+            }
+        }
+        return defaultTable;
+    }
+
+    // Solve every legal position by retrograde analysis.
+    public static TTTTablebase generate() {
+        byte[] entries = new byte[POSITIONS];
+        int[] unsolvedMoves = new int[POSITIONS]; // Nonzero for unsolved positions
+        int[] queue = new int[POSITIONS];
+        int head = 0;
+        int tail = 0;
+
+        // Positions won by the player who just moved are lost for the player to
+        // move. Other positions wait for their moves to be solved.
+        for (int code = 0; code < POSITIONS; code++) {
+            int stones = stoneCount(code);
+            if (!isLegal(code)) {
+                continue;
+            }
+            if (hasLine(code, 1) || hasLine(code, 2)) {
+                entries[code] = entry(LOSS, NO_MOVE);
+                queue[tail++] = code;
+            } else if (stones == CELLS) {
+                entries[code] = entry(DRAW, NO_MOVE);
+            } else {
+                unsolvedMoves[code] = CELLS - stones;
+            }
+        }
+
+        // Solved positions come off the queue in order of distance from the end
+        // of the game. A position with a move to a lost position is won; one
+        // whose moves all reach won positions is lost.
+        while (head < tail) {
+            int code = queue[head++];
+            int result = resultOf(entries[code]);
+            int lastMover = nextDigit(code) == 1 ? 2 : 1;
+            for (int cell = 0; cell < CELLS; cell++) {
+                if (digitAt(code, cell) != lastMover) {
+                    continue;
+                }
+                int parent = code - lastMover * TTTBoard.POWERS_OF_3[cell];
+                if (unsolvedMoves[parent] == 0) {
+                    continue;
+                }
+                if (result == LOSS) {
+                    entries[parent] = entry(WIN, cell);
+                    unsolvedMoves[parent] = 0;
+                    queue[tail++] = parent;
+                } else if (--unsolvedMoves[parent] == 0) {
+                    entries[parent] = entry(LOSS, cell);
+                    queue[tail++] = parent;
+                }
+            }
+        }
+
+        // What is left can neither be won nor lost. Mark it all drawn before
+        // choosing moves, since a move must reach another drawn position.
+        for (int code = 0; code < POSITIONS; code++) {
+            if (unsolvedMoves[code] != 0) {
+                entries[code] = entry(DRAW, NO_MOVE);
+            }
+        }
+        for (int code = 0; code < POSITIONS; code++) {
+            if (unsolvedMoves[code] != 0) {
+                int mover = nextDigit(code);
+                for (int cell = 0; cell < CELLS; cell++) {
+                    int child = code + mover * TTTBoard.POWERS_OF_3[cell];
+                    if (digitAt(code, cell) == 0 && resultOf(entries[child]) == DRAW) {
+                        entries[code] = entry(DRAW, cell);
+                        break;
+                    }
+                }
+            }
+        }
+        return new TTTTablebase(entries);
+    }
+
+    // Read a table in the format written by write, checking its header and
+    // checksum.
+    public static TTTTablebase read(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a tic-tac-toe tablebase");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported tablebase version " + version);
+        }
+        int count = in.readInt();
+        if (count != POSITIONS) {
+            throw new IOException("Expected " + POSITIONS + " entries, found " + count);
+        }
+        byte[] entries = new byte[count];
+        in.readFully(entries);
+        CRC32 crc = new CRC32();
+        crc.update(entries);
+        if (in.readLong() != crc.getValue()) {
+            throw new IOException("Tablebase checksum mismatch");
+        }
+        return new TTTTablebase(entries);
+    }
+
+    public void write(OutputStream os) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(entries.length);
+        out.write(entries);
+        CRC32 crc = new CRC32();
+        crc.update(entries);
+        out.writeLong(crc.getValue());
+        out.flush();
+    }
+
+    @Override
+    public AiSolver.mmResult probe(Board brd) {
+        if (!(brd instanceof TTTBoard)) {
+            return null;
+        }
+        TTTBoard board = (TTTBoard) brd;
+        int code = board.getCode();
+        int entry = entries[code];
+        int result = resultOf(entry);
+        if (result == UNREACHABLE) {
+            return null;
+        }
+
+        AiSolver.mmResult best = new AiSolver.mmResult();
+        int player = board.getCurrentPlayer();
+        best.Values = result == WIN ? player * Board.WIN : result == LOSS ? -player * Board.WIN : 0;
+        best.currentMove = moveOf(entry) == NO_MOVE ? null : board.decodeMove(moveOf(entry));
+        best.depth = CELLS - stoneCount(code);
+        return best;
+    }
+
+    // Return the result for the player to move in the given position, one of
+    // WIN, LOSS, DRAW or UNREACHABLE.
+    public int getResult(int code) {
+        return resultOf(entries[code]);
+    }
+
+    // Number of legal positions, reachable in some game
+    public int getPositionCount() {
+        int count = 0;
+        for (byte entry : entries) {
+            if (resultOf(entry) != UNREACHABLE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static byte entry(int result, int cell) {
+        return (byte) (result << 4 | cell);
+    }
+
+    private static int resultOf(int entry) {
+        return entry >> 4 & 0x3;
+    }
+
+    private static int moveOf(int entry) {
+        return entry & 0xF;
+    }
+
+    private static int digitAt(int code, int cell) {
+        return code / TTTBoard.POWERS_OF_3[cell] % 3;
+    }
+
+    private static int stoneCount(int code) {
+        int count = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (digitAt(code, cell) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // The digit of the player to move: X (1) moves first, so X is to move
+    // when both have played equally often.
+    private static int nextDigit(int code) {
+        int x = 0;
+        int o = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int digit = digitAt(code, cell);
+            x += digit == 1 ? 1 : 0;
+            o += digit == 2 ? 1 : 0;
+        }
+        return x == o ? 1 : 2;
+    }
+
+    private static boolean hasLine(int code, int digit) {
+        for (int[] line : LINES) {
+            if (digitAt(code, line[0]) == digit && digitAt(code, line[1]) == digit
+                    && digitAt(code, line[2]) == digit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Whether the position can arise in a game: X has made as many moves as O
+    // or one more, and play stopped at the first completed line.
+    private static boolean isLegal(int code) {
+        int x = 0;
+        int o = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int digit = digitAt(code, cell);
+            x += digit == 1 ? 1 : 0;
+            o += digit == 2 ? 1 : 0;
+        }
+        if (x != o && x != o + 1) {
+            return false;
+        }
+        boolean xLine = hasLine(code, 1);
+        boolean oLine = hasLine(code, 2);
+        return !(xLine && oLine) && (!xLine || x == o + 1) && (!oLine || x == o);
+    }
+
+    // Generate the table and write it to the file named by args[0], normally
+    // RESOURCE in this class's directory.
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("Usage: TTTTablebase <outputFile>");
+            return;
+        }
+        TTTTablebase table = generate();
+        try (OutputStream os = new FileOutputStream(args[0])) {
+            table.write(os);
+        }
+        System.out.println("Wrote " + table.getPositionCount() + " positions to " + args[0]);
+    }
+}
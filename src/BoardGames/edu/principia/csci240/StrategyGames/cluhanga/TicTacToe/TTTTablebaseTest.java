@@ -0,0 +1,70 @@
+package boardgames.edu.principia.csci240.strategygames.cluhanga.tictactoe;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import boardgames.edu.principia.csci240.strategygames.AiSolver;
+import boardgames.edu.principia.csci240.strategygames.Board;
+
+public class TTTTablebaseTest {
+    private final TTTTablebase table = TTTTablebase.generate();
+    private final AiSolver solver = new AiSolver();
+
+    @Test
+    public void testCountsLegalPositions() {
+        assertEquals(5478, table.getPositionCount());
+        assertEquals(TTTTablebase.DRAW, table.getResult(0));
+    }
+
+    // Walk every reachable position, checking the table against a full search
+    // and checking that its move keeps the value.
+    @Test
+    public void testMatchesSearchEverywhere() throws Exception {
+        checkFrom(new TTTBoard());
+    }
+
+    private void checkFrom(TTTBoard board) throws Exception {
+        AiSolver.mmResult known = table.probe(board);
+        AiSolver.mmResult searched = solver.searchToDepth(board, AiSolver.MAX_DEPTH);
+        assertEquals(board.toString(), searched.Values, known.Values);
+        if (Math.abs(board.getValue()) >= Board.WIN || board.getValidMoves().isEmpty()) {
+            assertNull(known.currentMove);
+            return;
+        }
+        board.applyMove(known.currentMove);
+        assertEquals(known.Values, table.probe(board).Values);
+        board.undoMove();
+
+        for (TTTBoard.TicTacToeMove move : board.getValidMoves()) {
+            board.applyMove(move);
+            checkFrom(board);
+            board.undoMove();
+        }
+    }
+
+    @Test
+    public void testWriteAndReadBack() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.write(out);
+        byte[] bytes = out.toByteArray();
+        TTTTablebase copy = TTTTablebase.read(new ByteArrayInputStream(bytes));
+        for (int code = 0; code < TTTTablebase.POSITIONS; code++) {
+            assertEquals(table.getResult(code), copy.getResult(code));
+        }
+
+        bytes[100] ^= 1;
+        try {
+            TTTTablebase.read(new ByteArrayInputStream(bytes));
+            fail("Corrupt table was read");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("checksum"));
+        }
+    }
+}